@@ -15,4 +15,5 @@ public class AnnouncementsSliceDto {
 
     private List<AnnouncementDto> announcements;
     private boolean hasNext;
+    private String nextCursor;
 }
@@ -0,0 +1,19 @@
+package pl.factorymethod.rada.announcements.dto;
+
+import java.time.LocalDateTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MarkReadResultDto {
+
+    private String userId;
+    private LocalDateTime upTo;
+    private int markedCount;
+}
@@ -0,0 +1,16 @@
+package pl.factorymethod.rada.announcements.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UnreadCountDto {
+
+    private String userId;
+    private int unreadCount;
+}
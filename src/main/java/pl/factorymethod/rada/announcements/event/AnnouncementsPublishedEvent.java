@@ -0,0 +1,12 @@
+package pl.factorymethod.rada.announcements.event;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+public record AnnouncementsPublishedEvent(
+    UUID sourcePublicId,
+    LocalDateTime publishedAt,
+    List<UUID> recipientPublicIds
+) {
+}
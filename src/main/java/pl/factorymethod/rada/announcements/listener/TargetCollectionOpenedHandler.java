@@ -0,0 +1,40 @@
+package pl.factorymethod.rada.announcements.listener;
+
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import pl.factorymethod.rada.announcements.service.AnnouncementFanOutService;
+import pl.factorymethod.rada.outbox.OutboxEvent;
+import pl.factorymethod.rada.outbox.OutboxEventHandler;
+import pl.factorymethod.rada.targets.event.TargetContributionCollectionOpenedEvent;
+
+/**
+ * Announces an opened contribution collection to the target's parents from the outbox, so
+ * the fan-out survives a restart between the commit and the delivery. The fan-out skips
+ * parents already announced to, which keeps redelivery harmless.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TargetCollectionOpenedHandler implements OutboxEventHandler {
+
+    private final AnnouncementFanOutService announcementFanOutService;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    public boolean supports(String eventType) {
+        return TargetContributionCollectionOpenedEvent.class.getName().equals(eventType);
+    }
+
+    @Override
+    public void handle(OutboxEvent outboxEvent) throws Exception {
+        TargetContributionCollectionOpenedEvent event =
+                objectMapper.readValue(outboxEvent.getPayload(), TargetContributionCollectionOpenedEvent.class);
+        log.info("[Outbox] Collection opened for target {} | feePerStudent={} | students={}",
+                event.targetPublicId(), event.feePerStudent(), event.studentCount());
+        announcementFanOutService.announceCollectionOpened(event);
+    }
+}
@@ -3,6 +3,7 @@ package pl.factorymethod.rada.announcements.mapper;
 import org.springframework.stereotype.Component;
 
 import pl.factorymethod.rada.announcements.dto.AnnouncementDto;
+import pl.factorymethod.rada.announcements.repository.AnnouncementView;
 import pl.factorymethod.rada.model.Announcement;
 
 @Component
@@ -24,4 +25,21 @@ public class AnnouncementMapper {
             .publishedAt(announcement.getPublishedAt())
             .build();
     }
+
+    public AnnouncementDto toDto(AnnouncementView view) {
+        if (view == null) {
+            return null;
+        }
+
+        return AnnouncementDto.builder()
+            .id(view.getPublicId().toString())
+            .userId(view.getUserPublicId().toString())
+            .userName(view.getUserName())
+            .read(view.getRead())
+            .createdAt(view.getCreatedAt())
+            .description(view.getDescription())
+            .summary(view.getSummary())
+            .publishedAt(view.getPublishedAt())
+            .build();
+    }
 }
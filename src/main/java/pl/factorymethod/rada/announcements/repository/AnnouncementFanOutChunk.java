@@ -0,0 +1,23 @@
+package pl.factorymethod.rada.announcements.repository;
+
+import java.util.UUID;
+
+/**
+ * Result of one fan-out chunk: the highest recipient user id covered (null when no
+ * recipients were left), how many recipients the chunk covered and how many announcements
+ * were inserted, with the public ids of the users who got one. Fewer inserts than recipients
+ * means some parents were already announced to.
+ */
+public interface AnnouncementFanOutChunk {
+
+    Long getLastUserId();
+
+    long getRecipientCount();
+
+    long getInsertedCount();
+
+    /**
+     * Public ids of the users an announcement was inserted for; null when there were none
+     */
+    UUID[] getInsertedUserPublicIds();
+}
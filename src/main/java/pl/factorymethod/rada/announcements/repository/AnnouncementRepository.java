@@ -1,14 +1,20 @@
 package pl.factorymethod.rada.announcements.repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 
 import pl.factorymethod.rada.model.Announcement;
 
@@ -16,28 +22,52 @@ import pl.factorymethod.rada.model.Announcement;
 public interface AnnouncementRepository extends JpaRepository<Announcement, Long> {
 
     /**
-     * Find all announcements for a specific user
+     * Find announcements for a specific user, newest first, starting after the
+     * {@code (publishedAt, id)} keyset position (first page when both are null)
      */
     @Query(
             value = """
-                    SELECT a.*
+                    SELECT a.id AS id,
+                           a.public_id AS publicId,
+                           u.public_id AS userPublicId,
+                           u.name AS userName,
+                           a.is_read AS read,
+                           a.created_at AS createdAt,
+                           a.description AS description,
+                           a.summary AS summary,
+                           a.published_at AS publishedAt
                     FROM announcements a
                     JOIN users u ON u.id = a.user_id
                     WHERE u.enabled = true
                       AND u.expired = false
                       AND u.deleted = false
                       AND u.public_id = :userId
-                    ORDER BY a.published_at DESC
+                      AND (a.published_at, a.id) < (COALESCE(CAST(:afterPublishedAt AS timestamp), 'infinity'),
+                                                    COALESCE(CAST(:afterId AS bigint), 9223372036854775807))
+                    ORDER BY a.published_at DESC, a.id DESC
                     """,
             nativeQuery = true)
-    Slice<Announcement> findByUserId(@Param("userId") UUID userId, Pageable pageable);
+    Slice<AnnouncementView> findByUserId(
+            @Param("userId") UUID userId,
+            @Param("afterPublishedAt") LocalDateTime afterPublishedAt,
+            @Param("afterId") Long afterId,
+            Pageable pageable);
 
     /**
-     * Find unread announcements for a specific user
+     * Find unread announcements for a specific user, newest first, starting after the
+     * {@code (publishedAt, id)} keyset position (first page when both are null)
      */
     @Query(
             value = """
-                    SELECT a.*
+                    SELECT a.id AS id,
+                           a.public_id AS publicId,
+                           u.public_id AS userPublicId,
+                           u.name AS userName,
+                           a.is_read AS read,
+                           a.created_at AS createdAt,
+                           a.description AS description,
+                           a.summary AS summary,
+                           a.published_at AS publishedAt
                     FROM announcements a
                     JOIN users u ON u.id = a.user_id
                     WHERE u.enabled = true
@@ -45,17 +75,32 @@ public interface AnnouncementRepository extends JpaRepository<Announcement, Long
                       AND u.deleted = false
                       AND u.public_id = :userId
                       AND a.is_read = false
-                    ORDER BY a.published_at DESC
+                      AND (a.published_at, a.id) < (COALESCE(CAST(:afterPublishedAt AS timestamp), 'infinity'),
+                                                    COALESCE(CAST(:afterId AS bigint), 9223372036854775807))
+                    ORDER BY a.published_at DESC, a.id DESC
                     """,
             nativeQuery = true)
-    Slice<Announcement> findUnreadByUserId(@Param("userId") UUID userId, Pageable pageable);
+    Slice<AnnouncementView> findUnreadByUserId(
+            @Param("userId") UUID userId,
+            @Param("afterPublishedAt") LocalDateTime afterPublishedAt,
+            @Param("afterId") Long afterId,
+            Pageable pageable);
 
     /**
-     * Find read announcements for a specific user
+     * Find read announcements for a specific user, newest first, starting after the
+     * {@code (publishedAt, id)} keyset position (first page when both are null)
      */
     @Query(
             value = """
-                    SELECT a.*
+                    SELECT a.id AS id,
+                           a.public_id AS publicId,
+                           u.public_id AS userPublicId,
+                           u.name AS userName,
+                           a.is_read AS read,
+                           a.created_at AS createdAt,
+                           a.description AS description,
+                           a.summary AS summary,
+                           a.published_at AS publishedAt
                     FROM announcements a
                     JOIN users u ON u.id = a.user_id
                     WHERE u.enabled = true
@@ -63,10 +108,220 @@ public interface AnnouncementRepository extends JpaRepository<Announcement, Long
                       AND u.deleted = false
                       AND u.public_id = :userId
                       AND a.is_read = true
-                    ORDER BY a.published_at DESC
+                      AND (a.published_at, a.id) < (COALESCE(CAST(:afterPublishedAt AS timestamp), 'infinity'),
+                                                    COALESCE(CAST(:afterId AS bigint), 9223372036854775807))
+                    ORDER BY a.published_at DESC, a.id DESC
                     """,
             nativeQuery = true)
-    Slice<Announcement> findReadByUserId(@Param("userId") UUID userId, Pageable pageable);
+    Slice<AnnouncementView> findReadByUserId(
+            @Param("userId") UUID userId,
+            @Param("afterPublishedAt") LocalDateTime afterPublishedAt,
+            @Param("afterId") Long afterId,
+            Pageable pageable);
 
-   Optional<Announcement> findByPublicId(UUID publicId);
+    Optional<Announcement> findByPublicId(UUID publicId);
+
+    /**
+     * Find announcements of a user published after the {@code (publishedAt, id)} keyset
+     * position, oldest first (used to replay what a reconnecting stream missed)
+     */
+    @Query(
+            value = """
+                    SELECT a.id AS id,
+                           a.public_id AS publicId,
+                           u.public_id AS userPublicId,
+                           u.name AS userName,
+                           a.is_read AS read,
+                           a.created_at AS createdAt,
+                           a.description AS description,
+                           a.summary AS summary,
+                           a.published_at AS publishedAt
+                    FROM announcements a
+                    JOIN users u ON u.id = a.user_id
+                    WHERE u.public_id = :userId
+                      AND (a.published_at, a.id) > (:afterPublishedAt, :afterId)
+                    ORDER BY a.published_at ASC, a.id ASC
+                    """,
+            nativeQuery = true)
+    List<AnnouncementView> findNewerByUserId(
+            @Param("userId") UUID userId,
+            @Param("afterPublishedAt") LocalDateTime afterPublishedAt,
+            @Param("afterId") long afterId,
+            Pageable pageable);
+
+    /**
+     * Find announcements published at or after {@code since} for a set of users, oldest first
+     * and at most {@code perUserLimit} per user
+     */
+    @Query(
+            value = """
+                    SELECT a.id AS id,
+                           a.public_id AS publicId,
+                           u.public_id AS userPublicId,
+                           u.name AS userName,
+                           a.is_read AS read,
+                           a.created_at AS createdAt,
+                           a.description AS description,
+                           a.summary AS summary,
+                           a.published_at AS publishedAt
+                    FROM users u
+                    CROSS JOIN LATERAL (
+                        SELECT a.id, a.public_id, a.is_read, a.created_at, a.description, a.summary, a.published_at
+                        FROM announcements a
+                        WHERE a.user_id = u.id
+                          AND a.published_at >= :since
+                        ORDER BY a.published_at ASC, a.id ASC
+                        LIMIT :perUserLimit
+                    ) a
+                    WHERE u.public_id IN (:userIds)
+                    ORDER BY a.published_at ASC, a.id ASC
+                    """,
+            nativeQuery = true)
+    List<AnnouncementView> findPublishedSinceForUsers(
+            @Param("userIds") Collection<UUID> userIds,
+            @Param("since") LocalDateTime since,
+            @Param("perUserLimit") int perUserLimit);
+
+    /**
+     * Find a single announcement as a flat view, together with its user's public id and name
+     */
+    @Query(
+            value = """
+                    SELECT a.id AS id,
+                           a.public_id AS publicId,
+                           u.public_id AS userPublicId,
+                           u.name AS userName,
+                           a.is_read AS read,
+                           a.created_at AS createdAt,
+                           a.description AS description,
+                           a.summary AS summary,
+                           a.published_at AS publishedAt
+                    FROM announcements a
+                    JOIN users u ON u.id = a.user_id
+                    WHERE a.public_id = :publicId
+                    """,
+            nativeQuery = true)
+    Optional<AnnouncementView> findViewByPublicId(@Param("publicId") UUID publicId);
+
+    /**
+     * Insert one announcement of {@code kind} for each of the next {@code chunkSize} parents
+     * (by user id, after {@code afterUserId}) linked through join codes to students of the
+     * target. Parents with several children in the target are announced to once, parents who
+     * already have this kind of announcement for the target are skipped, and the unread
+     * counters of the rest are bumped in the same statement, which also returns who they are. Every call commits on its own,
+     * even inside the outbox handler's transaction, so a large fan-out never holds one long
+     * transaction.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    @Query(
+            value = """
+                    WITH recipients AS (
+                        SELECT DISTINCT sjc.user_id
+                        FROM target_students ts
+                        JOIN student_join_codes sjc ON sjc.student_id = ts.student_id
+                        JOIN users u ON u.id = sjc.user_id
+                        WHERE ts.target_id = :targetId
+                          AND sjc.user_id > :afterUserId
+                          AND u.deleted = false
+                        ORDER BY sjc.user_id
+                        LIMIT :chunkSize),
+                    inserted AS (
+                        INSERT INTO announcements (public_id, user_id, is_read, created_at, description, summary,
+                                                   published_at, source_target_id, kind)
+                        SELECT gen_random_uuid(), r.user_id, false, :publishedAt, :description, :summary,
+                               :publishedAt, :targetId, :kind
+                        FROM recipients r
+                        ON CONFLICT (source_target_id, user_id, kind) DO NOTHING
+                        RETURNING user_id),
+                    counted AS (
+                        INSERT INTO announcement_unread_counters (user_id, unread_count, updated_at)
+                        SELECT i.user_id, count(*), :publishedAt
+                        FROM inserted i
+                        GROUP BY i.user_id
+                        ON CONFLICT (user_id) DO UPDATE
+                            SET unread_count = announcement_unread_counters.unread_count + EXCLUDED.unread_count,
+                                updated_at = EXCLUDED.updated_at)
+                    SELECT (SELECT max(user_id) FROM recipients) AS lastUserId,
+                           (SELECT count(*) FROM recipients) AS recipientCount,
+                           (SELECT count(*) FROM inserted) AS insertedCount,
+                           (SELECT array_agg(u.public_id)
+                            FROM inserted i
+                            JOIN users u ON u.id = i.user_id) AS insertedUserPublicIds
+                    """,
+            nativeQuery = true)
+    AnnouncementFanOutChunk insertForTargetParents(
+            @Param("targetId") Long targetId,
+            @Param("kind") String kind,
+            @Param("afterUserId") long afterUserId,
+            @Param("chunkSize") int chunkSize,
+            @Param("summary") String summary,
+            @Param("description") String description,
+            @Param("publishedAt") LocalDateTime publishedAt);
+
+    /**
+     * Mark a single announcement as read and, only if it was unread, decrement its owner's
+     * unread counter in the same statement
+     */
+    @Modifying
+    @Transactional
+    @Query(
+            value = """
+                    WITH flipped AS (
+                        UPDATE announcements
+                        SET is_read = true
+                        WHERE public_id = :publicId
+                          AND is_read = false
+                        RETURNING user_id)
+                    UPDATE announcement_unread_counters c
+                    SET unread_count = GREATEST(c.unread_count - 1, 0),
+                        updated_at = now()
+                    FROM flipped f
+                    WHERE c.user_id = f.user_id
+                    """,
+            nativeQuery = true)
+    int markReadByPublicId(@Param("publicId") UUID publicId);
+
+    /**
+     * Mark every unread announcement of a user (by internal id) published at or before {@code upTo} (all of
+     * them when null) as read and subtract the flipped rows from the unread counter, in one
+     * statement. Returns the number of announcements marked.
+     */
+    @Transactional
+    @Query(
+            value = """
+                    WITH flipped AS (
+                        UPDATE announcements a
+                        SET is_read = true
+                        WHERE a.user_id = :userId
+                          AND a.is_read = false
+                          AND a.published_at <= COALESCE(CAST(:upTo AS timestamp), 'infinity')
+                        RETURNING a.user_id),
+                    decremented AS (
+                        UPDATE announcement_unread_counters c
+                        SET unread_count = GREATEST(c.unread_count - f.marked, 0),
+                            updated_at = now()
+                        FROM (SELECT user_id, count(*) AS marked FROM flipped GROUP BY user_id) f
+                        WHERE c.user_id = f.user_id
+                        RETURNING c.user_id)
+                    SELECT count(*) FROM flipped
+                    """,
+            nativeQuery = true)
+    int markAllReadByUserId(@Param("userId") Long userId, @Param("upTo") LocalDateTime upTo);
+
+    /**
+     * Read the maintained unread counter of a user (0 when the user has none yet, or when
+     * the feed would show them nothing). The counter itself covers every unread row, so it
+     * is right again as soon as a disabled or expired account is restored.
+     */
+    @Query(
+            value = """
+                    SELECT CASE WHEN u.enabled = true AND u.expired = false AND u.deleted = false
+                                THEN COALESCE(c.unread_count, 0)
+                                ELSE 0 END
+                    FROM users u
+                    LEFT JOIN announcement_unread_counters c ON c.user_id = u.id
+                    WHERE u.public_id = :userId
+                    """,
+            nativeQuery = true)
+    Optional<Integer> findUnreadCountByUserId(@Param("userId") UUID userId);
 }
@@ -0,0 +1,29 @@
+package pl.factorymethod.rada.announcements.repository;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Flat feed row: announcement columns joined with the owning user's public id and name,
+ * read straight from SQL so rendering a page never initialises a {@code User} proxy.
+ */
+public interface AnnouncementView {
+
+    Long getId();
+
+    UUID getPublicId();
+
+    UUID getUserPublicId();
+
+    String getUserName();
+
+    boolean getRead();
+
+    LocalDateTime getCreatedAt();
+
+    String getDescription();
+
+    String getSummary();
+
+    LocalDateTime getPublishedAt();
+}
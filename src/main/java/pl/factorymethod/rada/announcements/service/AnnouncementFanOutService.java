@@ -0,0 +1,82 @@
+package pl.factorymethod.rada.announcements.service;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import lombok.extern.slf4j.Slf4j;
+import pl.factorymethod.rada.announcements.event.AnnouncementsPublishedEvent;
+import pl.factorymethod.rada.announcements.repository.AnnouncementFanOutChunk;
+import pl.factorymethod.rada.announcements.repository.AnnouncementRepository;
+import pl.factorymethod.rada.model.Target;
+import pl.factorymethod.rada.shared.events.EventPublisher;
+import pl.factorymethod.rada.targets.event.TargetContributionCollectionOpenedEvent;
+import pl.factorymethod.rada.targets.repository.TargetRepository;
+
+/**
+ * Creates announcements for every parent of a target's students. Rows are produced in SQL
+ * ({@code INSERT ... SELECT} over target_students and student_join_codes) in user-id chunks,
+ * each committed separately, so no user or announcement entity is loaded into the JVM.
+ * Announcements are keyed by target, parent and kind, so opening a collection again only
+ * reaches parents who were not announced to yet. Every chunk that inserted anything publishes
+ * an {@link AnnouncementsPublishedEvent} naming its recipients.
+ */
+@Slf4j
+@Service
+public class AnnouncementFanOutService {
+
+    static final String COLLECTION_OPENED_KIND = "COLLECTION_OPENED";
+
+    private final AnnouncementRepository announcementRepository;
+    private final TargetRepository targetRepository;
+    private final EventPublisher eventPublisher;
+    private final int chunkSize;
+
+    public AnnouncementFanOutService(
+            AnnouncementRepository announcementRepository,
+            TargetRepository targetRepository,
+            EventPublisher eventPublisher,
+            @Value("${rada.announcements.fan-out-chunk-size:500}") int chunkSize) {
+        this.announcementRepository = announcementRepository;
+        this.targetRepository = targetRepository;
+        this.eventPublisher = eventPublisher;
+        this.chunkSize = chunkSize;
+    }
+
+    public int announceCollectionOpened(TargetContributionCollectionOpenedEvent event) {
+        Target target = targetRepository.findByPublicId(event.targetPublicId()).orElse(null);
+        if (target == null) {
+            log.warn("Skipping collection announcement, target not found: {}", event.targetPublicId());
+            return 0;
+        }
+
+        String summary = "Contribution collection opened"
+                + (target.getSummary() != null ? ": " + target.getSummary() : "");
+        String description = "Fee per student: " + event.feePerStudent() + ". Due to: " + target.getDueTo() + ".";
+
+        long afterUserId = 0;
+        int total = 0;
+        while (true) {
+            AnnouncementFanOutChunk chunk = announcementRepository.insertForTargetParents(
+                    target.getId(), COLLECTION_OPENED_KIND, afterUserId, chunkSize, summary, description,
+                    event.openedAt());
+            if (chunk.getLastUserId() == null) {
+                break;
+            }
+            total += (int) chunk.getInsertedCount();
+            afterUserId = chunk.getLastUserId();
+            if (chunk.getInsertedUserPublicIds() != null) {
+                eventPublisher.publish(new AnnouncementsPublishedEvent(
+                        target.getPublicId(), event.openedAt(), List.of(chunk.getInsertedUserPublicIds())));
+            }
+            // Skipped parents make insertedCount smaller, so only a short recipient chunk ends the loop
+            if (chunk.getRecipientCount() < chunkSize) {
+                break;
+            }
+        }
+
+        log.info("Collection opened announcements created: targetId={}, recipients={}", target.getPublicId(), total);
+        return total;
+    }
+}
@@ -1,16 +1,22 @@
 package pl.factorymethod.rada.announcements.service;
 
+import java.time.LocalDateTime;
 import java.util.UUID;
 
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import pl.factorymethod.rada.announcements.repository.AnnouncementRepository;
-import pl.factorymethod.rada.model.Announcement;
+import pl.factorymethod.rada.announcements.repository.AnnouncementView;
+import pl.factorymethod.rada.model.User;
+import pl.factorymethod.rada.shared.identity.PublicIdResolver;
+import pl.factorymethod.rada.shared.pagination.KeysetCursor;
 
 @Slf4j
 @Service
@@ -18,53 +24,82 @@ import pl.factorymethod.rada.model.Announcement;
 public class AnnouncementService {
 
     private final AnnouncementRepository announcementRepository;
+    private final PublicIdResolver publicIdResolver;
 
     /**
      * Get all announcements for a specific user
      */
     @Transactional(readOnly = true)
-    public Slice<Announcement> getAnnouncementsByUserId(String userId, Pageable pageable) {
+    public Slice<AnnouncementView> getAnnouncementsByUserId(String userId, KeysetCursor after, Pageable pageable) {
         log.debug("Fetching all announcements for user: {}", userId);
-        return announcementRepository.findByUserId(UUID.fromString(userId)  , pageable);
+        return announcementRepository.findByUserId(UUID.fromString(userId), afterPublishedAt(after), afterId(after), pageable);
     }
 
     /**
      * Get unread announcements for a specific user
      */
     @Transactional(readOnly = true)
-    public Slice<Announcement> getUnreadAnnouncementsByUserId(String userId, Pageable pageable) {
+    public Slice<AnnouncementView> getUnreadAnnouncementsByUserId(String userId, KeysetCursor after, Pageable pageable) {
         log.debug("Fetching unread announcements for user: {}", userId);
-        return announcementRepository.findUnreadByUserId(UUID.fromString(userId), pageable);
+        return announcementRepository.findUnreadByUserId(UUID.fromString(userId), afterPublishedAt(after), afterId(after), pageable);
     }
 
     /**
      * Get read announcements for a specific user
      */
     @Transactional(readOnly = true)
-    public Slice<Announcement> getReadAnnouncementsByUserId(String userId, Pageable pageable) {
+    public Slice<AnnouncementView> getReadAnnouncementsByUserId(String userId, KeysetCursor after, Pageable pageable) {
         log.debug("Fetching read announcements for user: {}", userId);
-        return announcementRepository.findReadByUserId(UUID.fromString(userId), pageable);
+        return announcementRepository.findReadByUserId(UUID.fromString(userId), afterPublishedAt(after), afterId(after), pageable);
     }
 
     /**
      * Mark announcement as read
      */
     @Transactional
-    public Announcement markAsRead(String announcementId) {
+    public AnnouncementView markAsRead(String announcementId) {
         log.debug("Marking announcement {} as read", announcementId);
-        Announcement announcement = announcementRepository.findByPublicId(UUID.fromString(announcementId))
+        UUID publicId = UUID.fromString(announcementId);
+        announcementRepository.markReadByPublicId(publicId);
+        return announcementRepository.findViewByPublicId(publicId)
             .orElseThrow(() -> new RuntimeException("Announcement not found with id: " + announcementId));
-        announcement.setRead(true);
-        return announcementRepository.save(announcement);
+    }
+
+    /**
+     * Mark all announcements of a user as read, optionally only those published up to a watermark
+     */
+    @Transactional
+    public int markAllAsRead(String userId, LocalDateTime upTo) {
+        log.debug("Marking announcements of user {} as read up to {}", userId, upTo);
+        Long id = publicIdResolver.findId(User.class, UUID.fromString(userId))
+            .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "User not found with id: " + userId));
+        return announcementRepository.markAllReadByUserId(id, upTo);
+    }
+
+    /**
+     * Get the number of unread announcements for a specific user
+     */
+    @Transactional(readOnly = true)
+    public int getUnreadCount(String userId) {
+        return announcementRepository.findUnreadCountByUserId(UUID.fromString(userId))
+            .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "User not found with id: " + userId));
     }
 
     /**
      * Get a single announcement by ID
      */
     @Transactional(readOnly = true)
-    public Announcement getAnnouncementById(String id) {
+    public AnnouncementView getAnnouncementById(String id) {
         log.debug("Fetching announcement by id: {}", id);
-        return announcementRepository.findByPublicId(UUID.fromString(id))
+        return announcementRepository.findViewByPublicId(UUID.fromString(id))
             .orElseThrow(() -> new RuntimeException("Announcement not found with id: " + id));
     }
+
+    private static LocalDateTime afterPublishedAt(KeysetCursor after) {
+        return after != null ? after.timestamp() : null;
+    }
+
+    private static Long afterId(KeysetCursor after) {
+        return after != null ? after.id() : null;
+    }
 }
@@ -0,0 +1,232 @@
+package pl.factorymethod.rada.announcements.stream;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import lombok.extern.slf4j.Slf4j;
+import pl.factorymethod.rada.announcements.event.AnnouncementsPublishedEvent;
+import pl.factorymethod.rada.announcements.mapper.AnnouncementMapper;
+import pl.factorymethod.rada.announcements.repository.AnnouncementRepository;
+import pl.factorymethod.rada.announcements.repository.AnnouncementView;
+import pl.factorymethod.rada.shared.pagination.KeysetCursor;
+
+/**
+ * Per-user Server-Sent Events channel for new announcements.
+ *
+ * Connections are held as {@link SseEmitter}s and cost no thread while idle; every send
+ * runs on its own virtual thread so a slow client never delays the others. New rows are
+ * discovered from {@link AnnouncementsPublishedEvent}, querying only its recipients that have
+ * an open stream here, capped at the replay limit per user. Event ids are keyset cursors, so a client
+ * reconnecting with {@code Last-Event-ID} is replayed exactly what it missed.
+ *
+ * Pushes only reach emitters held by this instance, and the event is delivered only on the
+ * instance that ran the fan-out. With several instances behind a load balancer a client
+ * connected elsewhere sees new announcements only after it reconnects (the replay covers
+ * them) or reloads its feed; the stream assumes a single instance until the event is
+ * broadcast between instances.
+ */
+@Slf4j
+@Service
+public class AnnouncementStreamService implements DisposableBean {
+
+    static final String ANNOUNCEMENT_EVENT = "announcement";
+    static final String RESYNC_EVENT = "resync";
+
+    private static final int USER_QUERY_CHUNK = 1000;
+
+    private final AnnouncementRepository announcementRepository;
+    private final AnnouncementMapper announcementMapper;
+    private final long timeoutMs;
+    private final int replayLimit;
+    private final Map<UUID, Set<Subscription>> subscriptions = new ConcurrentHashMap<>();
+    private final ExecutorService executor =
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("announcement-sse-", 0).factory());
+
+    public AnnouncementStreamService(
+            AnnouncementRepository announcementRepository,
+            AnnouncementMapper announcementMapper,
+            @Value("${rada.announcements.stream.timeout-ms:1800000}") long timeoutMs,
+            @Value("${rada.announcements.stream.replay-limit:100}") int replayLimit) {
+        this.announcementRepository = announcementRepository;
+        this.announcementMapper = announcementMapper;
+        this.timeoutMs = timeoutMs;
+        this.replayLimit = replayLimit;
+    }
+
+    /**
+     * Open a stream for a user. With {@code lastEventId} the announcements published after it
+     * are replayed first (up to the replay limit, then a {@code resync} event asks the client
+     * to reload its feed); without it only announcements newer than the current newest are sent.
+     */
+    public SseEmitter subscribe(String userId, String lastEventId) {
+        UUID userPublicId = UUID.fromString(userId);
+        KeysetCursor resumeFrom = KeysetCursor.decode(lastEventId);
+
+        SseEmitter emitter = createEmitter(timeoutMs);
+        Subscription subscription = new Subscription(userPublicId, emitter);
+        emitter.onCompletion(() -> unregister(subscription));
+        emitter.onTimeout(() -> unregister(subscription));
+        emitter.onError(error -> unregister(subscription));
+
+        // Register before replaying so nothing published in between is lost; the
+        // subscription lock keeps replayed and pushed rows in order and de-duplicated
+        synchronized (subscription) {
+            subscriptions.computeIfAbsent(userPublicId, key -> ConcurrentHashMap.newKeySet()).add(subscription);
+            if (resumeFrom != null) {
+                replay(subscription, resumeFrom);
+            } else {
+                subscription.lastSent = newestCursor(userPublicId);
+            }
+        }
+        log.debug("Announcement stream opened: userId={}, resumeFrom={}", userPublicId, lastEventId);
+        return emitter;
+    }
+
+    @EventListener
+    public void onAnnouncementsPublished(AnnouncementsPublishedEvent event) {
+        List<UUID> connected = new ArrayList<>();
+        for (UUID recipient : event.recipientPublicIds()) {
+            if (subscriptions.containsKey(recipient)) {
+                connected.add(recipient);
+            }
+        }
+        for (int from = 0; from < connected.size(); from += USER_QUERY_CHUNK) {
+            List<UUID> chunk = connected.subList(from, Math.min(from + USER_QUERY_CHUNK, connected.size()));
+            Map<UUID, List<AnnouncementView>> byUser = announcementRepository
+                    .findPublishedSinceForUsers(chunk, event.publishedAt(), replayLimit + 1)
+                    .stream()
+                    .collect(Collectors.groupingBy(AnnouncementView::getUserPublicId));
+            byUser.forEach((userPublicId, views) -> {
+                for (Subscription subscription : subscriptions.getOrDefault(userPublicId, Set.of())) {
+                    executor.execute(() -> pushLimited(subscription, views));
+                }
+            });
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${rada.announcements.stream.heartbeat-ms:15000}")
+    public void heartbeat() {
+        subscriptions.values().forEach(userSubscriptions -> userSubscriptions.forEach(subscription ->
+                executor.execute(() -> send(subscription, SseEmitter.event().comment("heartbeat")))));
+    }
+
+    int connectionCount() {
+        return subscriptions.values().stream().mapToInt(Set::size).sum();
+    }
+
+    @Override
+    public void destroy() {
+        subscriptions.values().forEach(userSubscriptions ->
+                userSubscriptions.forEach(subscription -> subscription.emitter.complete()));
+        executor.shutdown();
+    }
+
+    SseEmitter createEmitter(long timeoutMs) {
+        return new SseEmitter(timeoutMs);
+    }
+
+    private void replay(Subscription subscription, KeysetCursor resumeFrom) {
+        subscription.lastSent = resumeFrom;
+        List<AnnouncementView> missed = announcementRepository.findNewerByUserId(
+                subscription.userPublicId,
+                resumeFrom.timestamp(),
+                resumeFrom.id(),
+                PageRequest.of(0, replayLimit + 1));
+        pushLimited(subscription, missed);
+    }
+
+    /**
+     * Push up to the replay limit, then ask the client to reload its feed if more were found
+     */
+    private void pushLimited(Subscription subscription, List<AnnouncementView> views) {
+        push(subscription, views.subList(0, Math.min(views.size(), replayLimit)));
+        if (views.size() > replayLimit) {
+            send(subscription, SseEmitter.event().name(RESYNC_EVENT).data(""));
+        }
+    }
+
+    private KeysetCursor newestCursor(UUID userPublicId) {
+        return announcementRepository.findByUserId(userPublicId, null, null, PageRequest.of(0, 1))
+                .stream()
+                .findFirst()
+                .map(AnnouncementStreamService::cursorOf)
+                .orElse(null);
+    }
+
+    private void push(Subscription subscription, List<AnnouncementView> views) {
+        synchronized (subscription) {
+            for (AnnouncementView view : views) {
+                KeysetCursor cursor = cursorOf(view);
+                if (subscription.lastSent != null && !isAfter(cursor, subscription.lastSent)) {
+                    continue;
+                }
+                boolean sent = send(subscription, SseEmitter.event()
+                        .id(cursor.encode())
+                        .name(ANNOUNCEMENT_EVENT)
+                        .data(announcementMapper.toDto(view)));
+                if (!sent) {
+                    return;
+                }
+                subscription.lastSent = cursor;
+            }
+        }
+    }
+
+    private boolean send(Subscription subscription, SseEmitter.SseEventBuilder event) {
+        try {
+            synchronized (subscription) {
+                subscription.emitter.send(event);
+            }
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            log.debug("Announcement stream closed: userId={}, reason={}", subscription.userPublicId, e.getMessage());
+            unregister(subscription);
+            subscription.emitter.completeWithError(e);
+            return false;
+        }
+    }
+
+    private void unregister(Subscription subscription) {
+        subscriptions.computeIfPresent(subscription.userPublicId, (key, userSubscriptions) -> {
+            userSubscriptions.remove(subscription);
+            return userSubscriptions.isEmpty() ? null : userSubscriptions;
+        });
+    }
+
+    private static KeysetCursor cursorOf(AnnouncementView view) {
+        return new KeysetCursor(view.getPublishedAt(), view.getId());
+    }
+
+    private static boolean isAfter(KeysetCursor cursor, KeysetCursor other) {
+        int byTime = cursor.timestamp().compareTo(other.timestamp());
+        return byTime > 0 || (byTime == 0 && cursor.id() > other.id());
+    }
+
+    private static final class Subscription {
+
+        private final UUID userPublicId;
+        private final SseEmitter emitter;
+        private KeysetCursor lastSent;
+
+        private Subscription(UUID userPublicId, SseEmitter emitter) {
+            this.userPublicId = userPublicId;
+            this.emitter = emitter;
+        }
+    }
+}
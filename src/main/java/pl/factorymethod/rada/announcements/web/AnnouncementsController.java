@@ -1,22 +1,26 @@
 package pl.factorymethod.rada.announcements.web;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.stream.Collectors;
 
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Slice;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
-import io.swagger.v3.oas.annotations.media.ArraySchema;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -25,9 +29,14 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import pl.factorymethod.rada.announcements.dto.AnnouncementDto;
+import pl.factorymethod.rada.announcements.dto.AnnouncementsSliceDto;
+import pl.factorymethod.rada.announcements.dto.MarkReadResultDto;
+import pl.factorymethod.rada.announcements.dto.UnreadCountDto;
 import pl.factorymethod.rada.announcements.mapper.AnnouncementMapper;
+import pl.factorymethod.rada.announcements.repository.AnnouncementView;
 import pl.factorymethod.rada.announcements.service.AnnouncementService;
-import pl.factorymethod.rada.model.Announcement;
+import pl.factorymethod.rada.announcements.stream.AnnouncementStreamService;
+import pl.factorymethod.rada.shared.pagination.KeysetCursor;
 
 @Slf4j
 @CrossOrigin(origins = "*")
@@ -42,55 +51,139 @@ public class AnnouncementsController {
 
     private final AnnouncementService announcementService;
     private final AnnouncementMapper announcementMapper;
+    private final AnnouncementStreamService announcementStreamService;
 
     /**
-     * Get all announcements for a specific user
-     * GET /api/v1/announcements/user/{userId}
+     * Get announcements for a specific user, newest first
+     * GET /api/v1/announcements/user/{userId}?after={cursor}
      */
     @Operation(
             summary = "Get user announcements",
-            description = "Retrieve paginated announcements for a specific user with optional unread filter"
+            description = "Retrieve announcements for a specific user with optional unread filter, "
+                    + "using cursor pagination (pass nextCursor as after to get the next page)"
     )
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Successfully retrieved announcements",
-                    content = @Content(array = @ArraySchema(schema = @Schema(implementation = AnnouncementDto.class)))),
+                    content = @Content(schema = @Schema(implementation = AnnouncementsSliceDto.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor",
+                    content = @Content),
             @ApiResponse(responseCode = "404", description = "User not found",
                     content = @Content)
     })
     @GetMapping("/user/{userId}")
-    public ResponseEntity<List<AnnouncementDto>> getAnnouncementsByUserId(
+    public ResponseEntity<AnnouncementsSliceDto> getAnnouncementsByUserId(
             @Parameter(description = "User ID", required = true) @PathVariable String userId,
             @Parameter(description = "Filter for unread/read announcements") @RequestParam(required = false) Boolean unread,
-            @Parameter(description = "Page number (0-indexed)") @RequestParam(defaultValue = "0") int page,
-            @Parameter(description = "Page size (max 100)") @RequestParam(defaultValue = "2") int size) {
+            @Parameter(description = "Cursor returned as nextCursor by the previous page") @RequestParam(required = false) String after,
+            @Parameter(description = "Page size (max 100)") @RequestParam(defaultValue = "20") int size) {
         
-        int resolvedPage = Math.max(page, 0);
         int resolvedSize = size <= 0 ? DEFAULT_PAGE_SIZE : Math.min(size, MAX_PAGE_SIZE);
-        PageRequest pageable = PageRequest.of(resolvedPage, resolvedSize);
+        KeysetCursor cursor = KeysetCursor.decode(after);
+        PageRequest pageable = PageRequest.of(0, resolvedSize);
 
-        log.info("Fetching announcements for user: {}, unread filter: {}, page: {}, size: {}",
-            userId, unread, resolvedPage, resolvedSize);
+        log.info("Fetching announcements for user: {}, unread filter: {}, after: {}, size: {}",
+            userId, unread, after, resolvedSize);
         
-        List<AnnouncementDto> response;
-
+        Slice<AnnouncementView> announcements;
         if (unread != null && unread) {
-            Slice<Announcement> announcements = announcementService.getUnreadAnnouncementsByUserId(userId, pageable);
-            response = announcements.getContent().stream()
-                .map(announcementMapper::toDto)
-                .collect(Collectors.toList());
+            announcements = announcementService.getUnreadAnnouncementsByUserId(userId, cursor, pageable);
         } else if (unread != null && !unread) {
-            Slice<Announcement> announcements = announcementService.getReadAnnouncementsByUserId(userId, pageable);
-            response = announcements.getContent().stream()
-                .map(announcementMapper::toDto)
-                .collect(Collectors.toList());
+            announcements = announcementService.getReadAnnouncementsByUserId(userId, cursor, pageable);
         } else {
-            Slice<Announcement> announcements = announcementService.getAnnouncementsByUserId(userId, pageable);
-            response = announcements.getContent().stream()
-                .map(announcementMapper::toDto)
-                .collect(Collectors.toList());
+            announcements = announcementService.getAnnouncementsByUserId(userId, cursor, pageable);
+        }
+
+        List<AnnouncementView> content = announcements.getContent();
+        String nextCursor = null;
+        if (announcements.hasNext()) {
+            AnnouncementView last = content.get(content.size() - 1);
+            nextCursor = new KeysetCursor(last.getPublishedAt(), last.getId()).encode();
         }
 
-        return ResponseEntity.ok(response);
+        return ResponseEntity.ok(AnnouncementsSliceDto.builder()
+            .announcements(content.stream()
+                .map(announcementMapper::toDto)
+                .collect(Collectors.toList()))
+            .hasNext(announcements.hasNext())
+            .nextCursor(nextCursor)
+            .build());
+    }
+
+    /**
+     * Get the unread announcement count for a specific user
+     * GET /api/v1/announcements/user/{userId}/unread-count
+     */
+    @Operation(
+            summary = "Get unread announcement count",
+            description = "Return the maintained number of unread announcements for a user, for badge polling"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved unread count",
+                    content = @Content(schema = @Schema(implementation = UnreadCountDto.class))),
+            @ApiResponse(responseCode = "404", description = "User not found",
+                    content = @Content)
+    })
+    @GetMapping("/user/{userId}/unread-count")
+    public ResponseEntity<UnreadCountDto> getUnreadCount(
+            @Parameter(description = "User ID", required = true) @PathVariable String userId) {
+        return ResponseEntity.ok(UnreadCountDto.builder()
+            .userId(userId)
+            .unreadCount(announcementService.getUnreadCount(userId))
+            .build());
+    }
+
+    /**
+     * Mark all announcements of a user as read
+     * PATCH /api/v1/announcements/user/{userId}/read?upTo={publishedAt}
+     */
+    @Operation(
+            summary = "Mark user announcements as read",
+            description = "Mark every unread announcement of a user as read with a single update, "
+                    + "optionally only those published at or before upTo"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully marked as read",
+                    content = @Content(schema = @Schema(implementation = MarkReadResultDto.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid watermark",
+                    content = @Content),
+            @ApiResponse(responseCode = "404", description = "User not found",
+                    content = @Content)
+    })
+    @PatchMapping("/user/{userId}/read")
+    public ResponseEntity<MarkReadResultDto> markAllAnnouncementsAsRead(
+            @Parameter(description = "User ID", required = true) @PathVariable String userId,
+            @Parameter(description = "Only mark announcements published at or before this time (ISO date-time)")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime upTo) {
+        log.info("Marking announcements of user {} as read up to {}", userId, upTo);
+        int marked = announcementService.markAllAsRead(userId, upTo);
+        return ResponseEntity.ok(MarkReadResultDto.builder()
+            .userId(userId)
+            .upTo(upTo)
+            .markedCount(marked)
+            .build());
+    }
+
+    /**
+     * Stream new announcements for a specific user
+     * GET /api/v1/announcements/user/{userId}/stream
+     */
+    @Operation(
+            summary = "Stream user announcements",
+            description = "Server-Sent Events stream of new announcements for a user. Event ids are cursors; "
+                    + "reconnect with Last-Event-ID to receive what was missed. Idle connections get heartbeat comments."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Stream opened"),
+            @ApiResponse(responseCode = "400", description = "Invalid Last-Event-ID",
+                    content = @Content)
+    })
+    @GetMapping(value = "/user/{userId}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamAnnouncements(
+            @Parameter(description = "User ID", required = true) @PathVariable String userId,
+            @Parameter(description = "Id of the last event received before reconnecting")
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        log.info("Opening announcement stream for user: {}, lastEventId: {}", userId, lastEventId);
+        return announcementStreamService.subscribe(userId, lastEventId);
     }
 
     /**
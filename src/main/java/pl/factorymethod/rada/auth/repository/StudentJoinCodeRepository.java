@@ -1,5 +1,6 @@
 package pl.factorymethod.rada.auth.repository;
 
+import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -15,6 +16,10 @@ public interface StudentJoinCodeRepository extends JpaRepository<StudentJoinCode
 
     boolean existsByJoinCode(String joinCode);
 
+    @Query(nativeQuery = true,
+            value = "SELECT join_code FROM student_join_codes WHERE join_code = ANY(:joinCodes)")
+    List<String> findExistingJoinCodes(@Param("joinCodes") String[] joinCodes);
+
     Optional<StudentJoinCode> findByJoinCode(String joinCode);
 
     @Modifying
@@ -5,7 +5,11 @@ import java.util.Optional;
 import java.util.UUID;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import pl.factorymethod.rada.model.User;
 
@@ -22,4 +26,50 @@ public interface UserRepository extends JpaRepository<User, Long> {
 
     Optional<User> findByPublicId(UUID publicId);
 
+    @Query("select e.id from User e where e.publicId = :publicId")
+    Optional<Long> findIdByPublicId(@Param("publicId") UUID publicId);
+
+    /**
+     * Sync email and name of a user provisioned from the identity provider, writing only when
+     * they differ. Returns whether the user exists at all, so callers only build a new row
+     * (and its DEK) for subjects seen for the first time.
+     */
+    @Transactional
+    @Query(value = """
+            WITH updated AS (
+                UPDATE users
+                SET email = :email,
+                    name = :name
+                WHERE public_id = :publicId
+                  AND (email IS DISTINCT FROM :email OR name IS DISTINCT FROM :name)
+                RETURNING id
+            )
+            SELECT EXISTS (SELECT 1 FROM users WHERE public_id = :publicId)
+            """, nativeQuery = true)
+    boolean syncProvisionedUser(
+            @Param("publicId") UUID publicId,
+            @Param("email") String email,
+            @Param("name") String name);
+
+    /**
+     * Insert a user provisioned from the identity provider, or sync email and name of an
+     * existing one, in a single statement. Returns 0 when the stored row already matches.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = """
+            INSERT INTO users (public_id, email, name, enabled, expired, deleted, dek)
+            VALUES (:publicId, :email, :name, true, false, false, :dek)
+            ON CONFLICT (public_id) DO UPDATE
+                SET email = EXCLUDED.email,
+                    name = EXCLUDED.name
+                WHERE users.email IS DISTINCT FROM EXCLUDED.email
+                   OR users.name IS DISTINCT FROM EXCLUDED.name
+            """, nativeQuery = true)
+    int upsertProvisionedUser(
+            @Param("publicId") UUID publicId,
+            @Param("email") String email,
+            @Param("name") String name,
+            @Param("dek") byte[] dek);
+
 }
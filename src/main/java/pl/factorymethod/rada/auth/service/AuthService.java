@@ -1,30 +1,65 @@
 package pl.factorymethod.rada.auth.service;
 
-import java.security.SecureRandom;
-import java.time.Instant;
+import java.time.Duration;
+import java.util.Objects;
 import java.util.UUID;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.stereotype.Service;
 
-import lombok.RequiredArgsConstructor;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import lombok.extern.slf4j.Slf4j;
 import pl.factorymethod.rada.auth.dto.LoginResponse;
 import pl.factorymethod.rada.auth.repository.UserRepository;
-import pl.factorymethod.rada.model.User;
+import pl.factorymethod.rada.users.encryption.DekGenerator;
 
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class AuthService {
 
+    static final String CACHE_NAME = "rada.auth.provisioned-users";
+
+    /**
+     * Token claims last written to the database for a subject
+     */
+    private record ProvisionedUser(String email, String name) {
+    }
+
     private final UserRepository userRepository;
+    private final DekGenerator dekGenerator;
+    private final Cache<UUID, ProvisionedUser> provisionedUsers;
+
+    public AuthService(
+            UserRepository userRepository,
+            DekGenerator dekGenerator,
+            ObjectProvider<MeterRegistry> meterRegistry,
+            @Value("${rada.auth.provisioned-cache.maximum-size:50000}") long maximumSize,
+            @Value("${rada.auth.provisioned-cache.ttl:PT10M}") Duration ttl) {
+        this.userRepository = userRepository;
+        this.dekGenerator = dekGenerator;
+        this.provisionedUsers = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        meterRegistry.ifAvailable(registry -> CaffeineCacheMetrics.monitor(registry, provisionedUsers, CACHE_NAME));
+    }
 
     /**
      * Provision user in Rada database based on JWT token information. If user already exists,
      * it will be updated with latest information from token. 
      * This method is calledduring authentication process to ensure that user information
      * in Rada is always up-to-date with Keycloak.
+     * Subjects provisioned recently with the same email and name are answered from memory;
+     * anyone else is synced with one update, and only subjects missing from the database
+     * get a freshly generated DEK and an insert.
      * @param authentication
      * @return
      */
@@ -33,30 +68,21 @@ public class AuthService {
         String email = extractEmailFromJwt(authentication);
         String name = extractNameFromJwt(authentication);
 
-        log.info("Provisioning user: userId={}, email={}, name={}", userId, email, name);
         UUID publicId = UUID.fromString(userId);
-        if (!userRepository.existsByPublicId(publicId)) {
-            createUser(userId, email, name);
+        ProvisionedUser claims = new ProvisionedUser(email, name);
+        if (!Objects.equals(provisionedUsers.getIfPresent(publicId), claims)) {
+            log.info("Provisioning user: userId={}, email={}, name={}", userId, email, name);
+            if (!userRepository.syncProvisionedUser(publicId, email, name)) {
+                int changed = userRepository.upsertProvisionedUser(publicId, email, name, dekGenerator.generateDek());
+                if (changed > 0) {
+                    log.info("Created user: {}", email);
+                }
+            }
+            provisionedUsers.put(publicId, claims);
         }
         return new LoginResponse(userId, email, name);
     }
 
-    private void createUser(String userId, String email, String name) {
-        User user = new User();
-        user.setPublicId(UUID.fromString(userId));
-        user.setEmail(email);
-        user.setName(name);
-        user.setEnabled(true);
-        user.setExpired(false);
-        user.setDeleted(false);
-        SecureRandom secureRandom = new SecureRandom(Instant.now().toString().getBytes());
-        byte[] dek = new byte[32];
-        secureRandom.nextBytes(dek);
-        user.setDek(dek);
-        userRepository.save(user);
-        log.info("Created new user: {}", email);
-    }
-
     private String extractUserIdFromJwt(Authentication authentication) {
         if (authentication.getPrincipal() instanceof Jwt jwt) {
             return jwt.getSubject();
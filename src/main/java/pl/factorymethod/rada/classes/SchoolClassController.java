@@ -22,6 +22,8 @@ import lombok.extern.slf4j.Slf4j;
 import pl.factorymethod.rada.classes.dto.CreateClassStudentsRequest;
 import pl.factorymethod.rada.classes.dto.CreateSchoolClassRequest;
 import pl.factorymethod.rada.classes.dto.MoveStudentRequest;
+import pl.factorymethod.rada.classes.dto.MoveStudentsRequest;
+import pl.factorymethod.rada.classes.dto.MoveStudentsResponse;
 import pl.factorymethod.rada.classes.dto.SchoolClassResponse;
 import pl.factorymethod.rada.classes.dto.StudentNameResponse;
 
@@ -88,4 +90,25 @@ public class SchoolClassController {
         schoolClassService.moveStudent(classId, studentId, request);
         return ResponseEntity.ok().build();
     }
+
+    @Operation(
+            summary = "Move students to another class",
+            description = "Move a list of students, or the whole class, to another class in one transaction "
+                    + "and renumber both classes once"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Students moved successfully",
+                    content = @Content(schema = @Schema(implementation = MoveStudentsResponse.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid request", content = @Content),
+            @ApiResponse(responseCode = "404", description = "Class or students not found", content = @Content)
+    })
+    @PostMapping("/{classId}/students/move")
+    public ResponseEntity<MoveStudentsResponse> moveStudents(
+            @PathVariable String classId,
+            @Valid @RequestBody MoveStudentsRequest request) {
+        log.info("Move students request received: fromClassId={}, toClassId={}, count={}, wholeClass={}",
+                classId, request.getTargetClassId(),
+                request.getStudentIds() != null ? request.getStudentIds().size() : 0, request.isWholeClass());
+        return ResponseEntity.ok(schoolClassService.moveStudents(classId, request));
+    }
 }
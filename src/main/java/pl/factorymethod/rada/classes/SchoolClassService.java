@@ -3,8 +3,10 @@ package pl.factorymethod.rada.classes;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 
 import org.springframework.stereotype.Service;
@@ -16,17 +18,23 @@ import pl.factorymethod.rada.classes.dto.CreateClassStudentsRequest;
 import pl.factorymethod.rada.classes.dto.CreateSchoolClassRequest;
 import pl.factorymethod.rada.classes.dto.CreateStudentRequest;
 import pl.factorymethod.rada.classes.dto.MoveStudentRequest;
+import pl.factorymethod.rada.classes.dto.MoveStudentsRequest;
+import pl.factorymethod.rada.classes.dto.MoveStudentsResponse;
 import pl.factorymethod.rada.classes.dto.SchoolClassResponse;
 import pl.factorymethod.rada.classes.dto.StudentNameResponse;
 import pl.factorymethod.rada.classes.event.SchoolClassCreatedEvent;
 import pl.factorymethod.rada.classes.event.StudentAddedToClassEvent;
 import pl.factorymethod.rada.classes.event.StudentMovedToClassEvent;
+import pl.factorymethod.rada.classes.event.StudentsMovedToClassEvent;
+import pl.factorymethod.rada.classes.event.StudentsRenumberedEvent;
 import pl.factorymethod.rada.classes.repository.SchoolClassRepository;
-import pl.factorymethod.rada.classes.repository.SchoolRepository;
 import pl.factorymethod.rada.model.School;
 import pl.factorymethod.rada.model.SchoolClass;
 import pl.factorymethod.rada.model.Student;
 import pl.factorymethod.rada.shared.events.EventPublisher;
+import pl.factorymethod.rada.shared.identity.PublicIdResolver;
+import pl.factorymethod.rada.targets.repository.MovedStudent;
+import pl.factorymethod.rada.targets.repository.StudentRenumbering;
 import pl.factorymethod.rada.targets.repository.StudentRepository;
 
 @Slf4j
@@ -34,15 +42,15 @@ import pl.factorymethod.rada.targets.repository.StudentRepository;
 @RequiredArgsConstructor
 public class SchoolClassService {
 
-    private final SchoolRepository schoolRepository;
     private final SchoolClassRepository schoolClassRepository;
     private final StudentRepository studentRepository;
     private final EventPublisher eventPublisher;
+    private final PublicIdResolver publicIdResolver;
 
     @Transactional
     public SchoolClassResponse createClass(CreateSchoolClassRequest request) {
         UUID schoolPublicId = UUID.fromString(request.getSchoolId());
-        School school = schoolRepository.findByPublicId(schoolPublicId)
+        School school = publicIdResolver.findReference(School.class, schoolPublicId)
                 .orElseThrow(() -> new RuntimeException("School not found: " + request.getSchoolId()));
 
         SchoolClass schoolClass = new SchoolClass();
@@ -56,21 +64,21 @@ public class SchoolClassService {
 
         eventPublisher.publish(new SchoolClassCreatedEvent(
                 schoolClass.getPublicId(),
-                school.getPublicId(),
+                schoolPublicId,
                 schoolClass.getName(),
                 schoolClass.getStartYear(),
                 schoolClass.getDescription(),
                 LocalDateTime.now()));
 
         log.info("School class created: publicId={}, schoolId={}, name={}",
-                schoolClass.getPublicId(), school.getPublicId(), schoolClass.getName());
+                schoolClass.getPublicId(), schoolPublicId, schoolClass.getName());
 
         return SchoolClassResponse.builder()
                 .classId(schoolClass.getPublicId().toString())
                 .name(schoolClass.getName())
                 .startYear(schoolClass.getStartYear())
                 .description(schoolClass.getDescription())
-                .schoolId(school.getPublicId().toString())
+                .schoolId(schoolPublicId.toString())
                 .build();
     }
 
@@ -97,24 +105,23 @@ public class SchoolClassService {
         }
 
         List<Student> savedStudents = studentRepository.saveAll(studentsToSave);
-        List<Student> allStudents = renumberClass(schoolClass);
-
-        Map<UUID, String> numbersByStudentId = new HashMap<>(allStudents.size());
-        for (Student student : allStudents) {
-            numbersByStudentId.put(student.getPublicId(), student.getNumber());
-        }
+        Map<UUID, StudentRenumbering> renumbered = renumberClass(schoolClass);
 
         LocalDateTime now = LocalDateTime.now();
+        List<Object> events = new ArrayList<>(savedStudents.size() + 1);
+        Set<UUID> addedStudentIds = new HashSet<>(savedStudents.size());
         for (Student student : savedStudents) {
-            String number = numbersByStudentId.get(student.getPublicId());
-            eventPublisher.publish(new StudentAddedToClassEvent(
+            addedStudentIds.add(student.getPublicId());
+            events.add(new StudentAddedToClassEvent(
                     student.getPublicId(),
                     schoolClass.getPublicId(),
-                    number,
+                    currentNumber(student, renumbered),
                     student.getFirstName(),
                     student.getLastName(),
                     now));
         }
+        addRenumberedEvent(events, schoolClass, renumbered, addedStudentIds, now);
+        eventPublisher.publishAll(events);
 
         log.info("Added {} students to class {}",
                 savedStudents.size(), schoolClass.getPublicId());
@@ -155,39 +162,128 @@ public class SchoolClassService {
         student.setSchoolClass(targetClass);
         studentRepository.save(student);
 
-        renumberClass(sourceClass);
-        List<Student> targetStudents = renumberClass(targetClass);
-
-        String newNumber = null;
-        for (Student targetStudent : targetStudents) {
-            if (targetStudent.getPublicId().equals(studentPublicId)) {
-                newNumber = targetStudent.getNumber();
-                break;
-            }
-        }
-        if (newNumber == null) {
-            throw new RuntimeException("Student not found in target class after move: " + studentId);
-        }
+        Map<UUID, StudentRenumbering> sourceRenumbered = renumberClass(sourceClass);
+        Map<UUID, StudentRenumbering> targetRenumbered = renumberClass(targetClass);
+        String newNumber = currentNumber(student, targetRenumbered);
 
-        eventPublisher.publish(new StudentMovedToClassEvent(
+        LocalDateTime now = LocalDateTime.now();
+        List<Object> events = new ArrayList<>(3);
+        events.add(new StudentMovedToClassEvent(
                 studentPublicId,
                 sourceClass.getPublicId(),
                 targetClass.getPublicId(),
                 oldNumber,
                 newNumber,
-                LocalDateTime.now()));
+                now));
+        addRenumberedEvent(events, sourceClass, sourceRenumbered, Set.of(), now);
+        addRenumberedEvent(events, targetClass, targetRenumbered, Set.of(studentPublicId), now);
+        eventPublisher.publishAll(events);
 
         log.info("Moved student {} from class {} to class {}", studentPublicId, sourceClassPublicId, targetClassPublicId);
     }
 
-    private List<Student> renumberClass(SchoolClass schoolClass) {
-        List<Student> students = studentRepository.findBySchoolClassOrderByLastNameAscFirstNameAsc(schoolClass);
-        int number = 1;
-        for (Student student : students) {
-            student.setNumber(String.valueOf(number));
-            number++;
+    @Transactional
+    public MoveStudentsResponse moveStudents(String sourceClassId, MoveStudentsRequest request) {
+        UUID sourceClassPublicId = UUID.fromString(sourceClassId);
+        UUID targetClassPublicId = UUID.fromString(request.getTargetClassId());
+        if (sourceClassPublicId.equals(targetClassPublicId)) {
+            throw new RuntimeException("Source and target class are the same: " + sourceClassId);
+        }
+
+        SchoolClass sourceClass = schoolClassRepository.findByPublicId(sourceClassPublicId)
+                .orElseThrow(() -> new RuntimeException("Class not found: " + sourceClassId));
+        SchoolClass targetClass = schoolClassRepository.findByPublicId(targetClassPublicId)
+                .orElseThrow(() -> new RuntimeException("Class not found: " + request.getTargetClassId()));
+
+        List<MovedStudent> moved;
+        if (request.isWholeClass()) {
+            moved = studentRepository.moveAllStudents(sourceClass.getId(), targetClass.getId());
+        } else {
+            if (request.getStudentIds() == null || request.getStudentIds().isEmpty()) {
+                throw new RuntimeException("Student IDs are required unless the whole class is moved");
+            }
+            Set<UUID> studentPublicIds = new HashSet<>(request.getStudentIds().size());
+            for (String studentId : request.getStudentIds()) {
+                studentPublicIds.add(UUID.fromString(studentId));
+            }
+            moved = studentRepository.moveStudents(sourceClass.getId(), targetClass.getId(), studentPublicIds);
+            if (moved.size() != studentPublicIds.size()) {
+                // Rolls the partial move back
+                throw new RuntimeException("Some students not found in class: " + sourceClassId);
+            }
+        }
+
+        if (moved.isEmpty()) {
+            return MoveStudentsResponse.builder()
+                    .sourceClassId(sourceClassId)
+                    .targetClassId(request.getTargetClassId())
+                    .movedCount(0)
+                    .build();
+        }
+
+        Map<UUID, StudentRenumbering> sourceRenumbered = renumberClass(sourceClass);
+        Map<UUID, StudentRenumbering> targetRenumbered = renumberClass(targetClass);
+
+        Set<UUID> movedStudentIds = new HashSet<>(moved.size());
+        List<StudentsMovedToClassEvent.Move> moves = new ArrayList<>(moved.size());
+        for (MovedStudent student : moved) {
+            movedStudentIds.add(student.getStudentPublicId());
+            StudentRenumbering change = targetRenumbered.get(student.getStudentPublicId());
+            moves.add(new StudentsMovedToClassEvent.Move(
+                    student.getStudentPublicId(),
+                    student.getOldNumber(),
+                    change != null ? change.getNewNumber() : student.getOldNumber()));
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        List<Object> events = new ArrayList<>(3);
+        events.add(new StudentsMovedToClassEvent(sourceClassPublicId, targetClassPublicId, moves, now));
+        addRenumberedEvent(events, sourceClass, sourceRenumbered, Set.of(), now);
+        addRenumberedEvent(events, targetClass, targetRenumbered, movedStudentIds, now);
+        eventPublisher.publishAll(events);
+
+        log.info("Moved {} students from class {} to class {}", moved.size(), sourceClassPublicId, targetClassPublicId);
+
+        return MoveStudentsResponse.builder()
+                .sourceClassId(sourceClassId)
+                .targetClassId(request.getTargetClassId())
+                .movedCount(moved.size())
+                .build();
+    }
+
+    /**
+     * Renumber a class in the database and return the students whose number changed, by public id
+     */
+    private Map<UUID, StudentRenumbering> renumberClass(SchoolClass schoolClass) {
+        List<StudentRenumbering> changes = studentRepository.renumberClass(schoolClass.getId());
+        Map<UUID, StudentRenumbering> changesByStudentId = new HashMap<>(changes.size());
+        for (StudentRenumbering change : changes) {
+            changesByStudentId.put(change.getStudentPublicId(), change);
+        }
+        return changesByStudentId;
+    }
+
+    private String currentNumber(Student student, Map<UUID, StudentRenumbering> renumbered) {
+        StudentRenumbering change = renumbered.get(student.getPublicId());
+        return change != null ? change.getNewNumber() : student.getNumber();
+    }
+
+    /**
+     * Report renumbered students other than {@code excluded}, who get their own event
+     */
+    private void addRenumberedEvent(List<Object> events, SchoolClass schoolClass,
+            Map<UUID, StudentRenumbering> renumbered, Set<UUID> excluded, LocalDateTime now) {
+        List<StudentsRenumberedEvent.NumberChange> changes = new ArrayList<>(renumbered.size());
+        for (StudentRenumbering change : renumbered.values()) {
+            if (!excluded.contains(change.getStudentPublicId())) {
+                changes.add(new StudentsRenumberedEvent.NumberChange(
+                        change.getStudentPublicId(),
+                        change.getOldNumber(),
+                        change.getNewNumber()));
+            }
+        }
+        if (!changes.isEmpty()) {
+            events.add(new StudentsRenumberedEvent(schoolClass.getPublicId(), changes, now));
         }
-        studentRepository.saveAll(students);
-        return students;
     }
 }
@@ -0,0 +1,29 @@
+package pl.factorymethod.rada.classes.dto;
+
+import java.util.List;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MoveStudentsRequest {
+
+    @NotBlank(message = "Target class ID is required")
+    private String targetClassId;
+
+    /**
+     * Students to move; ignored when {@link #wholeClass} is set
+     */
+    private List<String> studentIds;
+
+    /**
+     * Move every student of the class, e.g. into next year's class
+     */
+    private boolean wholeClass;
+}
@@ -0,0 +1,17 @@
+package pl.factorymethod.rada.classes.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MoveStudentsResponse {
+
+    private String sourceClassId;
+    private String targetClassId;
+    private int movedCount;
+}
@@ -0,0 +1,20 @@
+package pl.factorymethod.rada.classes.event;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+public record StudentsMovedToClassEvent(
+    UUID sourceClassPublicId,
+    UUID targetClassPublicId,
+    List<Move> moves,
+    LocalDateTime movedAt
+) {
+
+    public record Move(
+        UUID studentPublicId,
+        String oldNumber,
+        String newNumber
+    ) {
+    }
+}
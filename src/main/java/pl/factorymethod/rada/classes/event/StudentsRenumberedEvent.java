@@ -0,0 +1,19 @@
+package pl.factorymethod.rada.classes.event;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+public record StudentsRenumberedEvent(
+    UUID classPublicId,
+    List<NumberChange> changes,
+    LocalDateTime renumberedAt
+) {
+
+    public record NumberChange(
+        UUID studentPublicId,
+        String oldNumber,
+        String newNumber
+    ) {
+    }
+}
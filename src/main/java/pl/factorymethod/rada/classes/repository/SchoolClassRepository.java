@@ -4,6 +4,8 @@ import java.util.Optional;
 import java.util.UUID;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import pl.factorymethod.rada.model.SchoolClass;
@@ -12,4 +14,7 @@ import pl.factorymethod.rada.model.SchoolClass;
 public interface SchoolClassRepository extends JpaRepository<SchoolClass, Long> {
 
     Optional<SchoolClass> findByPublicId(UUID publicId);
+
+    @Query("select e.id from SchoolClass e where e.publicId = :publicId")
+    Optional<Long> findIdByPublicId(@Param("publicId") UUID publicId);
 }
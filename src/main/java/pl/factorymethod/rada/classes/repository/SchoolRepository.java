@@ -4,6 +4,8 @@ import java.util.Optional;
 import java.util.UUID;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import pl.factorymethod.rada.model.School;
@@ -13,5 +15,8 @@ public interface SchoolRepository extends JpaRepository<School, Long> {
 
     Optional<School> findByPublicId(UUID publicId);
 
+    @Query("select e.id from School e where e.publicId = :publicId")
+    Optional<Long> findIdByPublicId(@Param("publicId") UUID publicId);
+
     Optional<School> findByName(String name);
 }
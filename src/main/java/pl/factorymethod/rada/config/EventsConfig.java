@@ -0,0 +1,21 @@
+package pl.factorymethod.rada.config;
+
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.ApplicationEventMulticaster;
+import org.springframework.context.support.AbstractApplicationContext;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import pl.factorymethod.rada.shared.events.InstrumentedEventMulticaster;
+
+@Configuration
+public class EventsConfig {
+
+    @Bean(name = AbstractApplicationContext.APPLICATION_EVENT_MULTICASTER_BEAN_NAME)
+    public static ApplicationEventMulticaster applicationEventMulticaster(
+            BeanFactory beanFactory, ObjectProvider<MeterRegistry> meterRegistry) {
+        return new InstrumentedEventMulticaster(beanFactory, meterRegistry);
+    }
+}
@@ -1,5 +1,11 @@
 package pl.factorymethod.rada.config;
 
+import java.net.MalformedURLException;
+import java.net.URI;
+import java.net.URL;
+import java.time.Clock;
+import java.time.Duration;
+
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
@@ -7,11 +13,22 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtValidators;
 import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
 
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.jwk.source.JWKSource;
+import com.nimbusds.jose.jwk.source.JWKSourceBuilder;
+import com.nimbusds.jose.proc.JWSVerificationKeySelector;
+import com.nimbusds.jose.proc.SecurityContext;
+import com.nimbusds.jwt.proc.DefaultJWTProcessor;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
 @Configuration
 @EnableWebSecurity
 @EnableMethodSecurity
@@ -21,7 +38,7 @@ public class SecurityConfig {
     private String jwkSetUri;
 
     @Bean
-    public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain filterChain(HttpSecurity http, JwtDecoder jwtDecoder) throws Exception {
         http
                 .csrf(csrf -> csrf.disable())
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
@@ -37,15 +54,54 @@ public class SecurityConfig {
                         .anyRequest().authenticated()
                 )
                 .oauth2ResourceServer(oauth2 -> oauth2
-                        .jwt(jwt -> jwt.decoder(jwtDecoder()))
+                        .jwt(jwt -> jwt.decoder(jwtDecoder))
                 );
 
         return http.build();
     }
 
+    @Value("${rada.security.jwt.cache.maximum-size:10000}")
+    private long jwtCacheMaximumSize;
+
+    @Value("${rada.security.jwk.ttl:PT15M}")
+    private Duration jwkTtl;
+
+    @Value("${rada.security.jwk.refresh-ahead:PT1M}")
+    private Duration jwkRefreshAhead;
+
+    @Value("${rada.security.jwk.refresh-timeout:PT5S}")
+    private Duration jwkRefreshTimeout;
+
+    @Value("${rada.security.jwk.outage-tolerance:PT4H}")
+    private Duration jwkOutageTolerance;
+
     @Bean
-    public JwtDecoder jwtDecoder() {
-        return NimbusJwtDecoder.withJwkSetUri(jwkSetUri).build();
+    public JwtDecoder jwtDecoder(ObjectProvider<MeterRegistry> meterRegistry) {
+        // Klucze JWK odświeżane w tle przed wygaśnięciem; przy awarii Keycloaka używamy ostatniego zestawu
+        JWKSource<SecurityContext> jwkSource = JWKSourceBuilder.create(jwkSetUrl())
+                .cache(jwkTtl.toMillis(), jwkRefreshTimeout.toMillis())
+                .refreshAheadCache(jwkRefreshAhead.toMillis(), true)
+                .outageTolerant(jwkOutageTolerance.toMillis())
+                .retrying(true)
+                .build();
+
+        DefaultJWTProcessor<SecurityContext> jwtProcessor = new DefaultJWTProcessor<>();
+        jwtProcessor.setJWSKeySelector(new JWSVerificationKeySelector<>(JWSAlgorithm.RS256, jwkSource));
+        // Walidacja claimów (exp, nbf) po stronie Spring Security
+        jwtProcessor.setJWTClaimsSetVerifier((claims, context) -> {
+        });
+
+        NimbusJwtDecoder nimbusDecoder = new NimbusJwtDecoder(jwtProcessor);
+        nimbusDecoder.setJwtValidator(JwtValidators.createDefault());
+        return new CachingJwtDecoder(nimbusDecoder, meterRegistry, jwtCacheMaximumSize, Clock.systemUTC());
+    }
+
+    private URL jwkSetUrl() {
+        try {
+            return URI.create(jwkSetUri).toURL();
+        } catch (MalformedURLException e) {
+            throw new IllegalStateException("Invalid JWK set URI: " + jwkSetUri, e);
+        }
     }
 
     @Bean
@@ -1,17 +1,24 @@
 package pl.factorymethod.rada.contributions;
 
 import java.util.List;
+import java.util.UUID;
 
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -20,8 +27,13 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import pl.factorymethod.rada.contributions.dto.ContributionCreatedResponse;
 import pl.factorymethod.rada.contributions.dto.ContributionResponse;
+import pl.factorymethod.rada.contributions.dto.ContributionsSliceResponse;
 import pl.factorymethod.rada.contributions.dto.CreateContributionRequest;
+import pl.factorymethod.rada.contributions.export.ContributionExportFormat;
+import pl.factorymethod.rada.contributions.export.ContributionExportService;
+import pl.factorymethod.rada.shared.idempotency.IdempotencyService;
 
 @Slf4j
 @CrossOrigin(origins = "*")
@@ -31,43 +43,145 @@ import pl.factorymethod.rada.contributions.dto.CreateContributionRequest;
 @Tag(name = "Contributions", description = "Contribution management APIs")
 public class ContributionController {
 
+    private static final String IDEMPOTENCY_SCOPE = "contributions";
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 100;
+
     private final ContributionService contributionService;
+    private final IdempotencyService idempotencyService;
+    private final ContributionExportService contributionExportService;
 
     @Operation(summary = "Create contribution", description = "Create a new contribution payment for a target. " +
             "Fees must be frozen (calculated) before contributions can be collected. " +
-            "Platform commission and operator fee are calculated based on provided rates.")
+            "Platform commission and operator fee are calculated based on provided rates. " +
+            "Retries sent with the same Idempotency-Key return the original response.")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "Contribution created successfully"),
+            @ApiResponse(responseCode = "200", description = "Contribution created successfully", content = @Content(schema = @Schema(implementation = ContributionCreatedResponse.class))),
             @ApiResponse(responseCode = "400", description = "Invalid request or fees not frozen", content = @Content),
-            @ApiResponse(responseCode = "404", description = "Target or student not found", content = @Content)
+            @ApiResponse(responseCode = "404", description = "Target or student not found", content = @Content),
+            @ApiResponse(responseCode = "409", description = "Idempotency key reused with a different request", content = @Content)
     })
     @PostMapping
-    public ResponseEntity<Void> createContribution(@Valid @RequestBody CreateContributionRequest request) {
-        log.info("Create contribution request received: targetId={}, studentId={}, value={}",
-                request.getTargetId(), request.getStudentId(), request.getValue());
-        contributionService.createContribution(request);
-        return ResponseEntity.ok().build();
+    public ResponseEntity<ContributionCreatedResponse> createContribution(
+            @Parameter(description = "Client-generated key that makes retries of this request safe")
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+            @Valid @RequestBody CreateContributionRequest request) {
+        log.info("Create contribution request received: targetId={}, studentId={}, value={}, idempotencyKey={}",
+                request.getTargetId(), request.getStudentId(), request.getValue(), idempotencyKey);
+        if (idempotencyKey == null) {
+            return ResponseEntity.ok(create(request));
+        }
+        return ResponseEntity.ok(idempotencyService.execute(IDEMPOTENCY_SCOPE, idempotencyKey, request,
+                ContributionCreatedResponse.class, () -> create(request)));
     }
 
-    @Operation(summary = "Get contributions by target", description = "List all contributions for a specific target")
+    @Operation(summary = "Get contributions by target", description = "List all contributions for a specific target. "
+            + "Deprecated: use /by-target/{targetId}/page, which returns them newest first in cursor pages", deprecated = true)
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Contributions retrieved successfully", content = @Content(schema = @Schema(implementation = ContributionResponse.class))),
             @ApiResponse(responseCode = "404", description = "Target not found", content = @Content)
     })
+    @Deprecated
     @GetMapping("/by-target/{targetId}")
     public ResponseEntity<List<ContributionResponse>> getContributionsByTarget(@PathVariable String targetId) {
         log.info("Get contributions by target request received: targetId={}", targetId);
-        return ResponseEntity.ok(contributionService.getContributionsByTarget(targetId));
+        return ResponseEntity.ok(contributionService.getAllContributionsByTarget(targetId));
+    }
+
+    @Operation(summary = "Get contributions by target page", description = "List contributions for a specific target "
+            + "newest first using cursor pagination")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Contributions retrieved successfully", content = @Content(schema = @Schema(implementation = ContributionsSliceResponse.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor", content = @Content),
+            @ApiResponse(responseCode = "404", description = "Target not found", content = @Content)
+    })
+    @GetMapping("/by-target/{targetId}/page")
+    public ResponseEntity<ContributionsSliceResponse> getContributionsByTargetPage(
+            @PathVariable String targetId,
+            @Parameter(description = "Cursor returned as nextCursor by the previous page") @RequestParam(required = false) String after,
+            @Parameter(description = "Page size (max 100)") @RequestParam(defaultValue = "20") int size) {
+        log.info("Get contributions by target page request received: targetId={}, after={}, size={}", targetId, after, size);
+        return ResponseEntity.ok(contributionService.getContributionsByTarget(targetId, after, pageSize(size)));
+    }
+
+    @Operation(summary = "Export contributions by target", description = "Stream all contributions of a target, "
+            + "oldest first, as CSV or newline-delimited JSON")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Export streamed successfully"),
+            @ApiResponse(responseCode = "404", description = "Target not found", content = @Content)
+    })
+    @GetMapping("/by-target/{targetId}/export")
+    public ResponseEntity<StreamingResponseBody> exportContributionsByTarget(
+            @PathVariable String targetId,
+            @Parameter(description = "CSV or NDJSON") @RequestParam(defaultValue = "CSV") ContributionExportFormat format) {
+        log.info("Export contributions by target request received: targetId={}, format={}", targetId, format);
+        Long id = contributionExportService.resolveTargetId(targetId);
+        return export("contributions-target-" + targetId, format,
+                out -> contributionExportService.exportByTarget(id, format, out));
+    }
+
+    @Operation(summary = "Export contributions by school", description = "Stream all contributions of students "
+            + "in a school's classes, oldest first, as CSV or newline-delimited JSON")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Export streamed successfully"),
+            @ApiResponse(responseCode = "404", description = "School not found", content = @Content)
+    })
+    @GetMapping("/by-school/{schoolId}/export")
+    public ResponseEntity<StreamingResponseBody> exportContributionsBySchool(
+            @PathVariable String schoolId,
+            @Parameter(description = "CSV or NDJSON") @RequestParam(defaultValue = "CSV") ContributionExportFormat format) {
+        log.info("Export contributions by school request received: schoolId={}, format={}", schoolId, format);
+        Long id = contributionExportService.resolveSchoolId(schoolId);
+        return export("contributions-school-" + schoolId, format,
+                out -> contributionExportService.exportBySchool(id, format, out));
     }
 
-    @Operation(summary = "Get contributions by student", description = "List all contributions for a specific student")
+    @Operation(summary = "Get contributions by student", description = "List all contributions for a specific student. "
+            + "Deprecated: use /by-student/{studentId}/page, which returns them newest first in cursor pages", deprecated = true)
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Contributions retrieved successfully", content = @Content(schema = @Schema(implementation = ContributionResponse.class))),
             @ApiResponse(responseCode = "404", description = "Student not found", content = @Content)
     })
+    @Deprecated
     @GetMapping("/by-student/{studentId}")
     public ResponseEntity<List<ContributionResponse>> getContributionsByStudent(@PathVariable String studentId) {
         log.info("Get contributions by student request received: studentId={}", studentId);
-        return ResponseEntity.ok(contributionService.getContributionsByStudent(studentId));
+        return ResponseEntity.ok(contributionService.getAllContributionsByStudent(studentId));
+    }
+
+    @Operation(summary = "Get contributions by student page", description = "List contributions for a specific student "
+            + "newest first using cursor pagination")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Contributions retrieved successfully", content = @Content(schema = @Schema(implementation = ContributionsSliceResponse.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor", content = @Content),
+            @ApiResponse(responseCode = "404", description = "Student not found", content = @Content)
+    })
+    @GetMapping("/by-student/{studentId}/page")
+    public ResponseEntity<ContributionsSliceResponse> getContributionsByStudentPage(
+            @PathVariable String studentId,
+            @Parameter(description = "Cursor returned as nextCursor by the previous page") @RequestParam(required = false) String after,
+            @Parameter(description = "Page size (max 100)") @RequestParam(defaultValue = "20") int size) {
+        log.info("Get contributions by student page request received: studentId={}, after={}, size={}", studentId, after, size);
+        return ResponseEntity.ok(contributionService.getContributionsByStudent(studentId, after, pageSize(size)));
+    }
+
+    private static int pageSize(int size) {
+        return size <= 0 ? DEFAULT_PAGE_SIZE : Math.min(size, MAX_PAGE_SIZE);
+    }
+
+    private ResponseEntity<StreamingResponseBody> export(String fileName, ContributionExportFormat format,
+            StreamingResponseBody body) {
+        ContentDisposition disposition = ContentDisposition.attachment()
+                .filename(fileName + "." + format.getExtension())
+                .build();
+        return ResponseEntity.ok()
+                .contentType(format.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, disposition.toString())
+                .body(body);
+    }
+
+    private ContributionCreatedResponse create(CreateContributionRequest request) {
+        UUID publicId = contributionService.createContribution(request);
+        return new ContributionCreatedResponse(publicId.toString());
     }
 }
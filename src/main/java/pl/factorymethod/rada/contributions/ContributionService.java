@@ -6,7 +6,10 @@ import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
+import java.util.function.BiFunction;
 
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -14,13 +17,14 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import pl.factorymethod.rada.contributions.dto.CreateContributionRequest;
 import pl.factorymethod.rada.contributions.dto.ContributionResponse;
+import pl.factorymethod.rada.contributions.dto.ContributionsSliceResponse;
 import pl.factorymethod.rada.contributions.repository.ContributionRepository;
-import pl.factorymethod.rada.model.Contribution;
+import pl.factorymethod.rada.contributions.repository.ContributionView;
 import pl.factorymethod.rada.model.Student;
 import pl.factorymethod.rada.model.Target;
-import pl.factorymethod.rada.model.TargetStudent;
-import pl.factorymethod.rada.targets.repository.StudentRepository;
-import pl.factorymethod.rada.targets.repository.TargetRepository;
+import pl.factorymethod.rada.model.TargetStudentId;
+import pl.factorymethod.rada.shared.identity.PublicIdResolver;
+import pl.factorymethod.rada.shared.pagination.KeysetCursor;
 import pl.factorymethod.rada.targets.repository.TargetStudentRepository;
 
 @Slf4j
@@ -28,39 +32,17 @@ import pl.factorymethod.rada.targets.repository.TargetStudentRepository;
 @RequiredArgsConstructor
 public class ContributionService {
 
+	private static final int FULL_LISTING_PAGE_SIZE = 500;
+
 	private final ContributionRepository contributionRepository;
-	private final TargetRepository targetRepository;
-	private final StudentRepository studentRepository;
 	private final TargetStudentRepository targetStudentRepository;
+	private final PublicIdResolver publicIdResolver;
 
 	@Transactional
-	public void createContribution(CreateContributionRequest request) {
+	public UUID createContribution(CreateContributionRequest request) {
 		UUID targetPublicId = UUID.fromString(request.getTargetId());
 		UUID studentPublicId = UUID.fromString(request.getStudentId());
 
-		// Find target and student
-		Target target = targetRepository.findByPublicId(targetPublicId)
-				.orElseThrow(() -> new RuntimeException("Target not found: " + request.getTargetId()));
-
-		Student student = studentRepository.findByPublicId(studentPublicId)
-				.orElseThrow(() -> new RuntimeException("Student not found: " + request.getStudentId()));
-
-		// Verify that fee is calculated (frozen) for this student-target combination
-		TargetStudent targetStudent = targetStudentRepository.findById(
-				new pl.factorymethod.rada.model.TargetStudentId() {
-					{
-						setTargetId(target.getId());
-						setStudentId(student.getId());
-					}
-				}).orElseThrow(() -> new RuntimeException(
-						"Student is not assigned to this target"));
-
-		if (targetStudent.getFeeCalculatedAt() == null) {
-			throw new RuntimeException(
-					"Fee has not been calculated yet for this student-target combination. " +
-							"Fees must be frozen before contributions can be collected.");
-		}
-
 		// Calculate commissions
 		BigDecimal platformCommission = request.getValue()
 				.multiply(request.getPlatformCommissionRate())
@@ -70,65 +52,142 @@ public class ContributionService {
 				.multiply(request.getOperatorFeeRate())
 				.divide(BigDecimal.valueOf(100), 2, RoundingMode.HALF_UP);
 
-		// Create contribution
-		Contribution contribution = new Contribution();
-		contribution.setPublicId(UUID.randomUUID());
-		contribution.setValue(request.getValue());
-		contribution.setPlatformCommissionReserved(platformCommission);
-		contribution.setOperatorFee(operatorFee);
-		contribution.setOperatorFeeStatus("PENDING");
-		contribution.setTarget(target);
-		contribution.setStudent(student);
-		contribution.setCreatedAt(LocalDateTime.now());
-
-		contributionRepository.save(contribution);
+		// Validate the assignment and frozen fee, insert and update the target totals in one statement
+		UUID publicId = contributionRepository.insertContribution(UUID.randomUUID(), targetPublicId,
+				studentPublicId, request.getValue(), platformCommission, operatorFee, LocalDateTime.now())
+				.orElseThrow(() -> rejection(request, targetPublicId, studentPublicId));
 
-		log.info("Contribution created: value={}, platformCommission={}, operatorFee={}, " +
+		log.info("Contribution created: publicId={}, value={}, platformCommission={}, operatorFee={}, " +
 				"netToTarget={}, platformProfit={}",
-				request.getValue(), platformCommission, operatorFee,
+				publicId, request.getValue(), platformCommission, operatorFee,
 				request.getValue().subtract(platformCommission),
 				platformCommission.subtract(operatorFee));
+		return publicId;
 	}
 
+	/**
+	 * Explain why nothing was inserted. Only runs when the insert was rejected.
+	 */
+	private RuntimeException rejection(CreateContributionRequest request, UUID targetPublicId, UUID studentPublicId) {
+		Long targetId = publicIdResolver.findId(Target.class, targetPublicId).orElse(null);
+		if (targetId == null) {
+			return new RuntimeException("Target not found: " + request.getTargetId());
+		}
+		Long studentId = publicIdResolver.findId(Student.class, studentPublicId).orElse(null);
+		if (studentId == null) {
+			return new RuntimeException("Student not found: " + request.getStudentId());
+		}
+
+		TargetStudentId targetStudentId = new TargetStudentId();
+		targetStudentId.setTargetId(targetId);
+		targetStudentId.setStudentId(studentId);
+		if (!targetStudentRepository.existsById(targetStudentId)) {
+			return new RuntimeException("Student is not assigned to this target");
+		}
+		return new RuntimeException(
+				"Fee has not been calculated yet for this student-target combination. " +
+						"Fees must be frozen before contributions can be collected.");
+	}
+
+	/**
+	 * Full listing kept for clients of the unpaginated endpoint; reads the same keyset pages until the last one.
+	 */
 	@Transactional(readOnly = true)
-	public List<ContributionResponse> getContributionsByTarget(String targetId) {
-		UUID targetPublicId = UUID.fromString(targetId);
-		Target target = targetRepository.findByPublicId(targetPublicId)
-				.orElseThrow(() -> new RuntimeException("Target not found: " + targetId));
-		List<Contribution> contributions = contributionRepository.findByTargetOrderByCreatedAtDesc(target);
-		return mapToResponses(contributions);
+	public List<ContributionResponse> getAllContributionsByTarget(String targetId) {
+		Long id = findTargetId(targetId);
+		return readAll((timestamp, lastId) -> contributionRepository.findPageByTargetId(id, timestamp, lastId,
+				PageRequest.of(0, FULL_LISTING_PAGE_SIZE)));
+	}
+
+	@Transactional(readOnly = true)
+	public ContributionsSliceResponse getContributionsByTarget(String targetId, String after, int size) {
+		Long id = findTargetId(targetId);
+		KeysetCursor cursor = KeysetCursor.decode(after);
+		return toSlice(contributionRepository.findPageByTargetId(id,
+				cursor != null ? cursor.timestamp() : null,
+				cursor != null ? cursor.id() : null,
+				PageRequest.of(0, size)));
+	}
+
+	/**
+	 * Full listing kept for clients of the unpaginated endpoint; reads the same keyset pages until the last one.
+	 */
+	@Transactional(readOnly = true)
+	public List<ContributionResponse> getAllContributionsByStudent(String studentId) {
+		Long id = findStudentId(studentId);
+		return readAll((timestamp, lastId) -> contributionRepository.findPageByStudentId(id, timestamp, lastId,
+				PageRequest.of(0, FULL_LISTING_PAGE_SIZE)));
 	}
 
 	@Transactional(readOnly = true)
-	public List<ContributionResponse> getContributionsByStudent(String studentId) {
-		UUID studentPublicId = UUID.fromString(studentId);
-		Student student = studentRepository.findByPublicId(studentPublicId)
+	public ContributionsSliceResponse getContributionsByStudent(String studentId, String after, int size) {
+		Long id = findStudentId(studentId);
+		KeysetCursor cursor = KeysetCursor.decode(after);
+		return toSlice(contributionRepository.findPageByStudentId(id,
+				cursor != null ? cursor.timestamp() : null,
+				cursor != null ? cursor.id() : null,
+				PageRequest.of(0, size)));
+	}
+
+	private Long findTargetId(String targetId) {
+		return publicIdResolver.findId(Target.class, UUID.fromString(targetId))
+				.orElseThrow(() -> new RuntimeException("Target not found: " + targetId));
+	}
+
+	private Long findStudentId(String studentId) {
+		return publicIdResolver.findId(Student.class, UUID.fromString(studentId))
 				.orElseThrow(() -> new RuntimeException("Student not found: " + studentId));
-		List<Contribution> contributions = contributionRepository.findByStudentOrderByCreatedAtDesc(student);
-		return mapToResponses(contributions);
 	}
 
-	private List<ContributionResponse> mapToResponses(List<Contribution> contributions) {
-		List<ContributionResponse> responses = new ArrayList<>(contributions.size());
-		for (Contribution contribution : contributions) {
-			responses.add(mapToResponse(contribution));
-		}
+	private List<ContributionResponse> readAll(BiFunction<LocalDateTime, Long, Slice<ContributionView>> pages) {
+		List<ContributionResponse> responses = new ArrayList<>();
+		LocalDateTime timestamp = null;
+		Long lastId = null;
+		Slice<ContributionView> slice;
+		do {
+			slice = pages.apply(timestamp, lastId);
+			for (ContributionView view : slice.getContent()) {
+				responses.add(mapToResponse(view));
+				timestamp = view.getCreatedAt();
+				lastId = view.getId();
+			}
+		} while (slice.hasNext());
 		return responses;
 	}
 
-	private ContributionResponse mapToResponse(Contribution contribution) {
+	private ContributionsSliceResponse toSlice(Slice<ContributionView> slice) {
+		List<ContributionView> views = slice.getContent();
+		List<ContributionResponse> responses = new ArrayList<>(views.size());
+		for (ContributionView view : views) {
+			responses.add(mapToResponse(view));
+		}
+
+		String nextCursor = null;
+		if (slice.hasNext()) {
+			ContributionView last = views.get(views.size() - 1);
+			nextCursor = new KeysetCursor(last.getCreatedAt(), last.getId()).encode();
+		}
+
+		return ContributionsSliceResponse.builder()
+				.contributions(responses)
+				.hasNext(slice.hasNext())
+				.nextCursor(nextCursor)
+				.build();
+	}
+
+	private ContributionResponse mapToResponse(ContributionView view) {
 		return ContributionResponse.builder()
-				.publicId(contribution.getPublicId().toString())
-				.value(contribution.getValue())
-				.platformCommissionReserved(contribution.getPlatformCommissionReserved())
-				.operatorFee(contribution.getOperatorFee())
-				.operatorFeeStatus(contribution.getOperatorFeeStatus())
-				.operatorFeeSettledAt(contribution.getOperatorFeeSettledAt())
-				.netToTarget(contribution.getNetToTarget())
-				.platformProfit(contribution.getPlatformProfit())
-				.studentId(contribution.getStudent().getPublicId().toString())
-				.targetId(contribution.getTarget().getPublicId().toString())
-				.createdAt(contribution.getCreatedAt())
+				.publicId(view.getPublicId().toString())
+				.value(view.getValue())
+				.platformCommissionReserved(view.getPlatformCommissionReserved())
+				.operatorFee(view.getOperatorFee())
+				.operatorFeeStatus(view.getOperatorFeeStatus())
+				.operatorFeeSettledAt(view.getOperatorFeeSettledAt())
+				.netToTarget(view.getNetToTarget())
+				.platformProfit(view.getPlatformProfit())
+				.studentId(view.getStudentPublicId().toString())
+				.targetId(view.getTargetPublicId().toString())
+				.createdAt(view.getCreatedAt())
 				.build();
 	}
 }
@@ -0,0 +1,15 @@
+package pl.factorymethod.rada.contributions.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ContributionCreatedResponse {
+
+    private String publicId;
+}
@@ -0,0 +1,19 @@
+package pl.factorymethod.rada.contributions.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ContributionsSliceResponse {
+
+    private List<ContributionResponse> contributions;
+    private boolean hasNext;
+    private String nextCursor;
+}
@@ -0,0 +1,179 @@
+package pl.factorymethod.rada.contributions.export;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import pl.factorymethod.rada.contributions.repository.ContributionExportRow;
+import pl.factorymethod.rada.contributions.repository.ContributionRepository;
+import pl.factorymethod.rada.model.School;
+import pl.factorymethod.rada.model.Target;
+import pl.factorymethod.rada.shared.identity.PublicIdResolver;
+
+/**
+ * Writes contribution exports straight from a database cursor to the response stream, one
+ * row at a time, so memory use does not grow with the number of contributions.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ContributionExportService {
+
+    private static final String[] CSV_HEADER = {
+            "contribution_id", "created_at", "target_id", "student_id", "student_number",
+            "student_first_name", "student_last_name", "class_name", "value",
+            "platform_commission_reserved", "operator_fee", "operator_fee_status",
+            "net_to_target", "platform_profit"
+    };
+
+    private final ContributionRepository contributionRepository;
+    private final PublicIdResolver publicIdResolver;
+    private final ObjectMapper objectMapper;
+
+    public Long resolveTargetId(String targetId) {
+        return publicIdResolver.findId(Target.class, UUID.fromString(targetId))
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Target not found: " + targetId));
+    }
+
+    public Long resolveSchoolId(String schoolId) {
+        return publicIdResolver.findId(School.class, UUID.fromString(schoolId))
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "School not found: " + schoolId));
+    }
+
+    @Transactional(readOnly = true)
+    public void exportByTarget(Long targetId, ContributionExportFormat format, OutputStream out) throws IOException {
+        try (Stream<ContributionExportRow> rows = contributionRepository.streamExportByTargetId(targetId)) {
+            int count = write(rows.iterator(), format, out);
+            log.info("Exported {} contributions of target {} as {}", count, targetId, format);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public void exportBySchool(Long schoolId, ContributionExportFormat format, OutputStream out) throws IOException {
+        try (Stream<ContributionExportRow> rows = contributionRepository.streamExportBySchoolId(schoolId)) {
+            int count = write(rows.iterator(), format, out);
+            log.info("Exported {} contributions of school {} as {}", count, schoolId, format);
+        }
+    }
+
+    int write(Iterator<ContributionExportRow> rows, ContributionExportFormat format, OutputStream out)
+            throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        int count = format == ContributionExportFormat.CSV ? writeCsv(rows, writer) : writeNdjson(rows, writer);
+        writer.flush();
+        return count;
+    }
+
+    private int writeCsv(Iterator<ContributionExportRow> rows, Writer writer) throws IOException {
+        writer.write(String.join(",", CSV_HEADER));
+        writer.write("\r\n");
+        int count = 0;
+        while (rows.hasNext()) {
+            ContributionExportRow row = rows.next();
+            writer.write(csv(row.getPublicId()));
+            writer.write(',');
+            writer.write(csv(row.getCreatedAt()));
+            writer.write(',');
+            writer.write(csv(row.getTargetPublicId()));
+            writer.write(',');
+            writer.write(csv(row.getStudentPublicId()));
+            writer.write(',');
+            writer.write(csv(row.getStudentNumber()));
+            writer.write(',');
+            writer.write(csv(row.getStudentFirstName()));
+            writer.write(',');
+            writer.write(csv(row.getStudentLastName()));
+            writer.write(',');
+            writer.write(csv(row.getClassName()));
+            writer.write(',');
+            writer.write(csv(row.getValue()));
+            writer.write(',');
+            writer.write(csv(row.getPlatformCommissionReserved()));
+            writer.write(',');
+            writer.write(csv(row.getOperatorFee()));
+            writer.write(',');
+            writer.write(csv(row.getOperatorFeeStatus()));
+            writer.write(',');
+            writer.write(csv(row.getNetToTarget()));
+            writer.write(',');
+            writer.write(csv(row.getPlatformProfit()));
+            writer.write("\r\n");
+            count++;
+        }
+        return count;
+    }
+
+    private int writeNdjson(Iterator<ContributionExportRow> rows, Writer writer) throws IOException {
+        // The generator must not close the response stream; the container owns it
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(writer)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        int count = 0;
+        while (rows.hasNext()) {
+            ContributionExportRow row = rows.next();
+            generator.writeStartObject();
+            generator.writeStringField("contributionId", string(row.getPublicId()));
+            generator.writeStringField("createdAt", string(row.getCreatedAt()));
+            generator.writeStringField("targetId", string(row.getTargetPublicId()));
+            generator.writeStringField("studentId", string(row.getStudentPublicId()));
+            generator.writeStringField("studentNumber", row.getStudentNumber());
+            generator.writeStringField("studentFirstName", row.getStudentFirstName());
+            generator.writeStringField("studentLastName", row.getStudentLastName());
+            generator.writeStringField("className", row.getClassName());
+            writeNumber(generator, "value", row.getValue());
+            writeNumber(generator, "platformCommissionReserved", row.getPlatformCommissionReserved());
+            writeNumber(generator, "operatorFee", row.getOperatorFee());
+            generator.writeStringField("operatorFeeStatus", row.getOperatorFeeStatus());
+            writeNumber(generator, "netToTarget", row.getNetToTarget());
+            writeNumber(generator, "platformProfit", row.getPlatformProfit());
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+            count++;
+        }
+        generator.flush();
+        return count;
+    }
+
+    private static void writeNumber(JsonGenerator generator, String field, BigDecimal value) throws IOException {
+        if (value == null) {
+            generator.writeNullField(field);
+        } else {
+            generator.writeNumberField(field, value);
+        }
+    }
+
+    private static String string(Object value) {
+        return value != null ? value.toString() : null;
+    }
+
+    static String csv(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value instanceof BigDecimal decimal ? decimal.toPlainString() : value.toString();
+        if (value instanceof String && !text.isEmpty() && "=+-@".indexOf(text.charAt(0)) >= 0) {
+            // Keep spreadsheets from evaluating names typed in by parents as formulas
+            text = "'" + text;
+        }
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            return text;
+        }
+        return '"' + text.replace("\"", "\"\"") + '"';
+    }
+}
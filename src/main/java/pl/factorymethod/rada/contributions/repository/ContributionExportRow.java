@@ -0,0 +1,40 @@
+package pl.factorymethod.rada.contributions.repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * One exported contribution with its student and target already joined in, so an export
+ * never touches the lazy {@code student} and {@code target} associations.
+ */
+public interface ContributionExportRow {
+
+    UUID getPublicId();
+
+    LocalDateTime getCreatedAt();
+
+    UUID getTargetPublicId();
+
+    UUID getStudentPublicId();
+
+    String getStudentNumber();
+
+    String getStudentFirstName();
+
+    String getStudentLastName();
+
+    String getClassName();
+
+    BigDecimal getValue();
+
+    BigDecimal getPlatformCommissionReserved();
+
+    BigDecimal getOperatorFee();
+
+    String getOperatorFeeStatus();
+
+    BigDecimal getNetToTarget();
+
+    BigDecimal getPlatformProfit();
+}
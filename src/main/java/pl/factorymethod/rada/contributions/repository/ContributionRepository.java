@@ -1,22 +1,215 @@
 package pl.factorymethod.rada.contributions.repository;
 
-import java.util.List;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import jakarta.persistence.QueryHint;
 import pl.factorymethod.rada.model.Contribution;
-import pl.factorymethod.rada.model.Student;
-import pl.factorymethod.rada.model.Target;
 
 @Repository
 public interface ContributionRepository extends JpaRepository<Contribution, Long> {
     
     Optional<Contribution> findByPublicId(UUID publicId);
 
-    List<Contribution> findByTargetOrderByCreatedAtDesc(Target target);
+    /**
+     * Contributions of a target, newest first, starting after the {@code (createdAt, id)}
+     * keyset position (first page when both are null)
+     */
+    @Query(nativeQuery = true, value = """
+            SELECT c.id AS id,
+                   c.public_id AS publicId,
+                   c.value AS value,
+                   c.platform_commission_reserved AS platformCommissionReserved,
+                   c.operator_fee AS operatorFee,
+                   c.operator_fee_status AS operatorFeeStatus,
+                   c.operator_fee_settled_at AS operatorFeeSettledAt,
+                   c.net_to_target AS netToTarget,
+                   c.platform_profit AS platformProfit,
+                   s.public_id AS studentPublicId,
+                   t.public_id AS targetPublicId,
+                   c.created_at AS createdAt
+            FROM contributions c
+            JOIN students s ON s.id = c.student_id
+            JOIN targets t ON t.id = c.target_id
+            WHERE c.target_id = :targetId
+              AND (c.created_at, c.id) < (COALESCE(CAST(:afterCreatedAt AS timestamp), 'infinity'),
+                                          COALESCE(CAST(:afterId AS bigint), 9223372036854775807))
+            ORDER BY c.created_at DESC, c.id DESC
+            """)
+    Slice<ContributionView> findPageByTargetId(
+            @Param("targetId") Long targetId,
+            @Param("afterCreatedAt") LocalDateTime afterCreatedAt,
+            @Param("afterId") Long afterId,
+            Pageable pageable);
 
-    List<Contribution> findByStudentOrderByCreatedAtDesc(Student student);
+    /**
+     * Contributions of a student, newest first, starting after the {@code (createdAt, id)}
+     * keyset position (first page when both are null)
+     */
+    @Query(nativeQuery = true, value = """
+            SELECT c.id AS id,
+                   c.public_id AS publicId,
+                   c.value AS value,
+                   c.platform_commission_reserved AS platformCommissionReserved,
+                   c.operator_fee AS operatorFee,
+                   c.operator_fee_status AS operatorFeeStatus,
+                   c.operator_fee_settled_at AS operatorFeeSettledAt,
+                   c.net_to_target AS netToTarget,
+                   c.platform_profit AS platformProfit,
+                   s.public_id AS studentPublicId,
+                   t.public_id AS targetPublicId,
+                   c.created_at AS createdAt
+            FROM contributions c
+            JOIN students s ON s.id = c.student_id
+            JOIN targets t ON t.id = c.target_id
+            WHERE c.student_id = :studentId
+              AND (c.created_at, c.id) < (COALESCE(CAST(:afterCreatedAt AS timestamp), 'infinity'),
+                                          COALESCE(CAST(:afterId AS bigint), 9223372036854775807))
+            ORDER BY c.created_at DESC, c.id DESC
+            """)
+    Slice<ContributionView> findPageByStudentId(
+            @Param("studentId") Long studentId,
+            @Param("afterCreatedAt") LocalDateTime afterCreatedAt,
+            @Param("afterId") Long afterId,
+            Pageable pageable);
+
+    /**
+     * Insert a contribution and add it to the running totals in one statement. The insert only
+     * happens when the student is assigned to the target with a frozen fee; the student's
+     * {@code target_students} row lock serializes concurrent payments of one student, so the
+     * first payment is counted as a new contributor exactly once.
+     *
+     * @return the public id of the new contribution, empty when nothing was inserted
+     */
+    @Transactional
+    @Query(nativeQuery = true, value = """
+            WITH assignment AS (
+                SELECT ts.target_id, ts.student_id
+                FROM target_students ts
+                JOIN targets t ON t.id = ts.target_id
+                JOIN students s ON s.id = ts.student_id
+                WHERE t.public_id = :targetPublicId
+                  AND s.public_id = :studentPublicId
+                  AND ts.fee_calculated_at IS NOT NULL),
+            inserted AS (
+                INSERT INTO contributions
+                    (public_id, value, platform_commission_reserved, operator_fee, operator_fee_status,
+                     student_id, target_id, created_at)
+                SELECT :publicId, :value, :platformCommission, :operatorFee, 'PENDING',
+                       a.student_id, a.target_id, :createdAt
+                FROM assignment a
+                RETURNING public_id, target_id, student_id, value, net_to_target, platform_profit),
+            paid AS (
+                UPDATE target_students ts
+                SET paid_amount = ts.paid_amount + i.value
+                FROM inserted i
+                WHERE ts.target_id = i.target_id
+                  AND ts.student_id = i.student_id
+                RETURNING ts.target_id, ts.paid_amount,
+                          i.value, i.net_to_target, i.platform_profit),
+            totals AS (
+                INSERT INTO target_contribution_totals AS t
+                    (target_id, collected_gross, net_to_target, platform_profit,
+                     contribution_count, contributor_count, updated_at)
+                SELECT p.target_id, p.value, p.net_to_target, p.platform_profit, 1,
+                       CASE WHEN p.value > 0 AND p.paid_amount = p.value THEN 1 ELSE 0 END,
+                       now()
+                FROM paid p
+                ON CONFLICT (target_id) DO UPDATE
+                    SET collected_gross = t.collected_gross + EXCLUDED.collected_gross,
+                        net_to_target = t.net_to_target + EXCLUDED.net_to_target,
+                        platform_profit = t.platform_profit + EXCLUDED.platform_profit,
+                        contribution_count = t.contribution_count + 1,
+                        contributor_count = t.contributor_count + EXCLUDED.contributor_count,
+                        updated_at = EXCLUDED.updated_at)
+            SELECT public_id
+            FROM inserted
+            """)
+    Optional<UUID> insertContribution(
+            @Param("publicId") UUID publicId,
+            @Param("targetPublicId") UUID targetPublicId,
+            @Param("studentPublicId") UUID studentPublicId,
+            @Param("value") BigDecimal value,
+            @Param("platformCommission") BigDecimal platformCommission,
+            @Param("operatorFee") BigDecimal operatorFee,
+            @Param("createdAt") LocalDateTime createdAt);
+
+    String EXPORT_FETCH_SIZE = "500";
+
+    /**
+     * Contributions of a target oldest first, read through a forward-only cursor. Must be
+     * consumed inside a transaction, which PostgreSQL needs to honour the fetch size.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query(nativeQuery = true, value = """
+            SELECT c.public_id AS publicId,
+                   c.created_at AS createdAt,
+                   t.public_id AS targetPublicId,
+                   s.public_id AS studentPublicId,
+                   s.number AS studentNumber,
+                   s.first_name AS studentFirstName,
+                   s.last_name AS studentLastName,
+                   cl.name AS className,
+                   c.value AS value,
+                   c.platform_commission_reserved AS platformCommissionReserved,
+                   c.operator_fee AS operatorFee,
+                   c.operator_fee_status AS operatorFeeStatus,
+                   c.net_to_target AS netToTarget,
+                   c.platform_profit AS platformProfit
+            FROM contributions c
+            JOIN targets t ON t.id = c.target_id
+            JOIN students s ON s.id = c.student_id
+            LEFT JOIN classes cl ON cl.id = s.class_id
+            WHERE c.target_id = :targetId
+            ORDER BY c.created_at, c.id
+            """)
+    Stream<ContributionExportRow> streamExportByTargetId(@Param("targetId") Long targetId);
+
+    /**
+     * Contributions of students currently in a school's classes, oldest first, read through
+     * a forward-only cursor. Must be consumed inside a transaction.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query(nativeQuery = true, value = """
+            SELECT c.public_id AS publicId,
+                   c.created_at AS createdAt,
+                   t.public_id AS targetPublicId,
+                   s.public_id AS studentPublicId,
+                   s.number AS studentNumber,
+                   s.first_name AS studentFirstName,
+                   s.last_name AS studentLastName,
+                   cl.name AS className,
+                   c.value AS value,
+                   c.platform_commission_reserved AS platformCommissionReserved,
+                   c.operator_fee AS operatorFee,
+                   c.operator_fee_status AS operatorFeeStatus,
+                   c.net_to_target AS netToTarget,
+                   c.platform_profit AS platformProfit
+            FROM contributions c
+            JOIN targets t ON t.id = c.target_id
+            JOIN students s ON s.id = c.student_id
+            JOIN classes cl ON cl.id = s.class_id
+            WHERE cl.school_id = :schoolId
+            ORDER BY c.created_at, c.id
+            """)
+    Stream<ContributionExportRow> streamExportBySchoolId(@Param("schoolId") Long schoolId);
 }
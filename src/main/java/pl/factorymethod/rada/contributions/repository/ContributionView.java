@@ -0,0 +1,36 @@
+package pl.factorymethod.rada.contributions.repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Contribution row with the student and target public ids joined in, so listings never
+ * initialize the lazy {@code student} and {@code target} associations.
+ */
+public interface ContributionView {
+
+    Long getId();
+
+    UUID getPublicId();
+
+    BigDecimal getValue();
+
+    BigDecimal getPlatformCommissionReserved();
+
+    BigDecimal getOperatorFee();
+
+    String getOperatorFeeStatus();
+
+    LocalDateTime getOperatorFeeSettledAt();
+
+    BigDecimal getNetToTarget();
+
+    BigDecimal getPlatformProfit();
+
+    UUID getStudentPublicId();
+
+    UUID getTargetPublicId();
+
+    LocalDateTime getCreatedAt();
+}
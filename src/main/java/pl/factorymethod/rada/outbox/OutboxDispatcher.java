@@ -0,0 +1,132 @@
+package pl.factorymethod.rada.outbox;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Claims a batch of due outbox events with {@code FOR UPDATE SKIP LOCKED}, hands each one
+ * to the matching {@link OutboxEventHandler}s and marks the batch processed in one update.
+ * Safe to run on several instances at once: each instance only sees rows nobody else has locked.
+ *
+ * Every handler runs in its own {@code REQUIRES_NEW} transaction, so a failing handler cannot
+ * mark the claiming transaction rollback-only and lose the bookkeeping of the whole batch.
+ * Failed events back off exponentially before they are claimed again. Events no handler
+ * supports are closed as {@link OutboxEventStatus#UNHANDLED} and purged after retention.
+ */
+@Slf4j
+@Service
+public class OutboxDispatcher {
+
+    private static final int MAX_ERROR_LENGTH = 2000;
+
+    private final OutboxEventRepository repository;
+    private final List<OutboxEventHandler> handlers;
+    private final TransactionTemplate handlerTransaction;
+    private final int maxAttempts;
+    private final Duration retryDelay;
+    private final Duration maxRetryDelay;
+
+    public OutboxDispatcher(
+            OutboxEventRepository repository,
+            List<OutboxEventHandler> handlers,
+            PlatformTransactionManager transactionManager,
+            @Value("${rada.outbox.relay.max-attempts:10}") int maxAttempts,
+            @Value("${rada.outbox.relay.retry-delay:PT1S}") Duration retryDelay,
+            @Value("${rada.outbox.relay.max-retry-delay:PT10M}") Duration maxRetryDelay) {
+        this.repository = repository;
+        this.handlers = handlers;
+        this.handlerTransaction = new TransactionTemplate(transactionManager);
+        this.handlerTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.maxAttempts = maxAttempts;
+        this.retryDelay = retryDelay;
+        this.maxRetryDelay = maxRetryDelay;
+    }
+
+    /**
+     * @return number of events claimed; a value below {@code batchSize} means no more events are due
+     */
+    @Transactional
+    public int dispatchBatch(int batchSize) {
+        LocalDateTime now = LocalDateTime.now();
+        List<OutboxEvent> events = repository.claimPending(batchSize, now);
+        if (events.isEmpty()) {
+            return 0;
+        }
+
+        List<Long> processedIds = new ArrayList<>(events.size());
+        List<Long> unhandledIds = new ArrayList<>();
+        for (OutboxEvent event : events) {
+            List<OutboxEventHandler> supporting = supportingHandlers(event);
+            if (supporting.isEmpty()) {
+                unhandledIds.add(event.getId());
+                continue;
+            }
+            try {
+                for (OutboxEventHandler handler : supporting) {
+                    handlerTransaction.executeWithoutResult(status -> handle(handler, event));
+                }
+                processedIds.add(event.getId());
+            } catch (RuntimeException e) {
+                Throwable cause = e instanceof HandlerException ? e.getCause() : e;
+                log.warn("Outbox event {} ({}) failed on attempt {}: {}",
+                        event.getId(), event.getEventType(), event.getAttempts() + 1, cause.getMessage());
+                repository.markFailed(event.getId(), truncate(cause.toString()), maxAttempts, now,
+                        retryDelay.toMillis(), maxRetryDelay.toMillis());
+            }
+        }
+
+        if (!processedIds.isEmpty()) {
+            repository.markProcessed(processedIds, now);
+        }
+        if (!unhandledIds.isEmpty()) {
+            log.debug("No outbox handler for {} events, closing them as unhandled", unhandledIds.size());
+            repository.markUnhandled(unhandledIds, now);
+        }
+        log.debug("Outbox batch dispatched: claimed={}, processed={}, unhandled={}",
+                events.size(), processedIds.size(), unhandledIds.size());
+        return events.size();
+    }
+
+    private List<OutboxEventHandler> supportingHandlers(OutboxEvent event) {
+        List<OutboxEventHandler> supporting = new ArrayList<>(1);
+        for (OutboxEventHandler handler : handlers) {
+            if (handler.supports(event.getEventType())) {
+                supporting.add(handler);
+            }
+        }
+        return supporting;
+    }
+
+    private static void handle(OutboxEventHandler handler, OutboxEvent event) {
+        try {
+            handler.handle(event);
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            // Checked exceptions must still roll the handler transaction back
+            throw new HandlerException(e);
+        }
+    }
+
+    private String truncate(String error) {
+        return error.length() <= MAX_ERROR_LENGTH ? error : error.substring(0, MAX_ERROR_LENGTH);
+    }
+
+    private static final class HandlerException extends RuntimeException {
+
+        HandlerException(Exception cause) {
+            super(cause);
+        }
+    }
+}
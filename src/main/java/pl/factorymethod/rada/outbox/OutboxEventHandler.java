@@ -0,0 +1,19 @@
+package pl.factorymethod.rada.outbox;
+
+/**
+ * Consumer of recorded outbox events. Every Spring bean implementing this interface is
+ * picked up by {@link OutboxDispatcher}.
+ *
+ * Delivery is at-least-once: each handler runs in its own transaction, committed before the
+ * event is marked processed, and an event is redelivered after a failure or if the claiming
+ * transaction rolls back, so implementations must be idempotent.
+ */
+public interface OutboxEventHandler {
+
+    /**
+     * @param eventType fully qualified class name of the recorded event
+     */
+    boolean supports(String eventType);
+
+    void handle(OutboxEvent event) throws Exception;
+}
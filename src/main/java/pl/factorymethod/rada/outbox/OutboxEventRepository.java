@@ -1,8 +1,81 @@
 package pl.factorymethod.rada.outbox;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    /**
+     * Lock the pending events that are due, oldest first, for the current transaction. Rows
+     * already claimed by another relay instance are skipped instead of waited on; rows backing
+     * off after a failure are skipped until their {@code next_attempt_at}.
+     */
+    @Query(nativeQuery = true, value = """
+            SELECT *
+            FROM outbox_events
+            WHERE status = 'PENDING'
+              AND next_attempt_at <= :now
+            ORDER BY next_attempt_at, id
+            LIMIT :batchSize
+            FOR UPDATE SKIP LOCKED
+            """)
+    List<OutboxEvent> claimPending(@Param("batchSize") int batchSize, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query(nativeQuery = true, value = """
+            UPDATE outbox_events
+            SET status = 'PROCESSED', processed_at = :processedAt
+            WHERE id IN (:ids)
+            """)
+    int markProcessed(@Param("ids") Collection<Long> ids, @Param("processedAt") LocalDateTime processedAt);
+
+    /**
+     * Count a failed attempt and back off exponentially from {@code baseDelayMs}, capped at
+     * {@code maxDelayMs}. The event becomes FAILED once it has used up {@code maxAttempts}.
+     */
+    @Modifying
+    @Query(nativeQuery = true, value = """
+            UPDATE outbox_events
+            SET attempts = attempts + 1,
+                last_error = :error,
+                status = CASE WHEN attempts + 1 >= :maxAttempts THEN 'FAILED' ELSE status END,
+                next_attempt_at = CAST(:now AS timestamp)
+                    + LEAST(:baseDelayMs * power(2, attempts), :maxDelayMs) * interval '1 millisecond'
+            WHERE id = :id
+            """)
+    int markFailed(
+            @Param("id") Long id,
+            @Param("error") String error,
+            @Param("maxAttempts") int maxAttempts,
+            @Param("now") LocalDateTime now,
+            @Param("baseDelayMs") long baseDelayMs,
+            @Param("maxDelayMs") long maxDelayMs);
+
+    /**
+     * Close events no handler supports; they are purged with processed events
+     */
+    @Modifying
+    @Query(nativeQuery = true, value = """
+            UPDATE outbox_events
+            SET status = 'UNHANDLED',
+                processed_at = :processedAt
+            WHERE id IN (:ids)
+            """)
+    int markUnhandled(@Param("ids") Collection<Long> ids, @Param("processedAt") LocalDateTime processedAt);
+
+    @Modifying
+    @Query(nativeQuery = true, value = """
+            DELETE FROM outbox_events
+            WHERE status IN ('PROCESSED', 'UNHANDLED')
+              AND processed_at < :cutoff
+            """)
+    int deleteProcessedBefore(@Param("cutoff") LocalDateTime cutoff);
 }
@@ -2,5 +2,10 @@ package pl.factorymethod.rada.outbox;
 
 public enum OutboxEventStatus {
     PENDING,
-    PROCESSED
+    PROCESSED,
+    FAILED,
+    /**
+     * No handler supported the event type when it was claimed; purged like processed events
+     */
+    UNHANDLED
 }
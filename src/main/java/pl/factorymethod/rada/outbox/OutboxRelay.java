@@ -0,0 +1,63 @@
+package pl.factorymethod.rada.outbox;
+
+import java.time.LocalDateTime;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Periodically drains the outbox through {@link OutboxDispatcher} and purges events that
+ * were processed longer ago than the retention period. Handlers such as the collection-opened
+ * announcement fan-out only run while the relay is enabled.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "rada.outbox.relay.enabled", havingValue = "true", matchIfMissing = true)
+public class OutboxRelay {
+
+    private final OutboxDispatcher dispatcher;
+    private final OutboxEventRepository repository;
+    private final int batchSize;
+    private final int maxBatchesPerRun;
+    private final int retentionDays;
+
+    public OutboxRelay(
+            OutboxDispatcher dispatcher,
+            OutboxEventRepository repository,
+            @Value("${rada.outbox.relay.batch-size:100}") int batchSize,
+            @Value("${rada.outbox.relay.max-batches-per-run:50}") int maxBatchesPerRun,
+            @Value("${rada.outbox.relay.retention-days:7}") int retentionDays) {
+        this.dispatcher = dispatcher;
+        this.repository = repository;
+        this.batchSize = batchSize;
+        this.maxBatchesPerRun = maxBatchesPerRun;
+        this.retentionDays = retentionDays;
+    }
+
+    @Scheduled(fixedDelayString = "${rada.outbox.relay.poll-interval-ms:1000}")
+    public void relay() {
+        int total = 0;
+        for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+            int claimed = dispatcher.dispatchBatch(batchSize);
+            total += claimed;
+            if (claimed < batchSize) {
+                break;
+            }
+        }
+        if (total > 0) {
+            log.info("Outbox relay dispatched {} events", total);
+        }
+    }
+
+    @Transactional
+    @Scheduled(cron = "${rada.outbox.relay.purge-cron:0 30 3 * * *}")
+    public void purgeProcessed() {
+        int deleted = repository.deleteProcessedBefore(LocalDateTime.now().minusDays(retentionDays));
+        log.info("Outbox purge removed {} processed events older than {} days", deleted, retentionDays);
+    }
+}
@@ -1,8 +1,13 @@
 package pl.factorymethod.rada.outbox;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -10,23 +15,108 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
+/**
+ * Records domain events in the outbox. Inside a transaction events are serialized
+ * immediately but buffered, and the whole buffer is written with one batched
+ * {@code saveAll} just before commit. Outside a transaction they are written straight away.
+ * The buffer is unbound while its transaction is suspended, so events recorded in a
+ * {@code REQUIRES_NEW} transaction are written, or discarded, with that transaction only.
+ */
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class OutboxService {
 
+    private static final Object BUFFER_KEY = new Object();
+
     private final OutboxEventRepository repository;
     private final ObjectMapper objectMapper;
 
     public void record(Object event) {
+        recordAll(List.of(event));
+    }
+
+    public void recordAll(Collection<?> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        List<OutboxEvent> outboxEvents = new ArrayList<>(events.size());
+        for (Object event : events) {
+            outboxEvents.add(toOutboxEvent(event, now));
+        }
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            currentBuffer().addAll(outboxEvents);
+        } else {
+            write(outboxEvents);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<OutboxEvent> currentBuffer() {
+        List<OutboxEvent> buffer = (List<OutboxEvent>) TransactionSynchronizationManager.getResource(BUFFER_KEY);
+        if (buffer != null) {
+            return buffer;
+        }
+
+        List<OutboxEvent> newBuffer = new ArrayList<>();
+        TransactionSynchronizationManager.bindResource(BUFFER_KEY, newBuffer);
+        TransactionSynchronizationManager.registerSynchronization(new BufferSynchronization(newBuffer));
+        return newBuffer;
+    }
+
+    private void write(List<OutboxEvent> outboxEvents) {
+        if (outboxEvents.isEmpty()) {
+            return;
+        }
+        repository.saveAll(outboxEvents);
+        log.info("Outbox events stored: count={}, firstType={}",
+                outboxEvents.size(), outboxEvents.get(0).getEventType());
+    }
+
+    /**
+     * Writes the buffer before its transaction commits and keeps it bound only while that
+     * transaction is the current one
+     */
+    private final class BufferSynchronization implements TransactionSynchronization {
+
+        private final List<OutboxEvent> buffer;
+
+        private BufferSynchronization(List<OutboxEvent> buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public void suspend() {
+            TransactionSynchronizationManager.unbindResource(BUFFER_KEY);
+        }
+
+        @Override
+        public void resume() {
+            TransactionSynchronizationManager.bindResource(BUFFER_KEY, buffer);
+        }
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            write(buffer);
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(BUFFER_KEY);
+        }
+    }
+
+    private OutboxEvent toOutboxEvent(Object event, LocalDateTime createdAt) {
         OutboxEvent outboxEvent = new OutboxEvent();
         outboxEvent.setEventType(event.getClass().getName());
         outboxEvent.setStatus(OutboxEventStatus.PENDING.name());
-        outboxEvent.setCreatedAt(LocalDateTime.now());
+        outboxEvent.setCreatedAt(createdAt);
+        outboxEvent.setNextAttemptAt(createdAt);
         outboxEvent.setPayload(serialize(event));
-
-        repository.save(outboxEvent);
-        log.info("Outbox event stored: type={}", outboxEvent.getEventType());
+        return outboxEvent;
     }
 
     private String serialize(Object event) {
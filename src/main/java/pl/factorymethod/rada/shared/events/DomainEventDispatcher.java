@@ -0,0 +1,134 @@
+package pl.factorymethod.rada.shared.events;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Delivers domain events to in-process listeners.
+ *
+ * In {@link Mode#ASYNC} (default) delivery waits for the surrounding transaction to commit and
+ * then runs on a virtual thread, so listeners add no latency to the request and cannot roll
+ * back the write that produced the event. Concurrency is capped; when every permit is taken
+ * deliveries queue on their virtual threads. They never fall back to the committing thread,
+ * whose finished transaction is still bound there and would swallow the listeners' writes.
+ * Events of a rolled back transaction are dropped, exactly like their outbox rows. Within the
+ * delivery task a failing listener is logged and the remaining listeners still run.
+ * {@link Mode#SYNC} keeps the old in-transaction delivery, where a failing listener rolls the
+ * publishing transaction back.
+ */
+@Slf4j
+@Component
+public class DomainEventDispatcher implements DisposableBean {
+
+    public enum Mode {
+        SYNC,
+        ASYNC
+    }
+
+    private static final ScopedValue<Boolean> ISOLATED_DELIVERY = ScopedValue.newInstance();
+
+    private final ApplicationEventPublisher eventPublisher;
+    private final Mode mode;
+    private final Semaphore permits;
+    private final ExecutorService executor;
+
+    public DomainEventDispatcher(
+            ApplicationEventPublisher eventPublisher,
+            @Value("${rada.events.dispatch-mode:ASYNC}") Mode mode,
+            @Value("${rada.events.async.max-concurrency:256}") int maxConcurrency) {
+        this.eventPublisher = eventPublisher;
+        this.mode = mode;
+        this.permits = new Semaphore(maxConcurrency);
+        this.executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("domain-event-", 0).factory());
+        log.info("Domain event dispatcher initialized: mode={}, maxConcurrency={}", mode, maxConcurrency);
+    }
+
+    public void dispatch(Collection<?> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        if (mode == Mode.SYNC) {
+            deliver(events);
+            return;
+        }
+
+        List<Object> snapshot = List.copyOf(events);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    submit(snapshot);
+                }
+            });
+        } else {
+            submit(snapshot);
+        }
+    }
+
+    private void submit(List<Object> events) {
+        try {
+            executor.execute(() -> {
+                try {
+                    permits.acquire();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    log.warn("Interrupted while waiting to deliver {} domain events", events.size());
+                    return;
+                }
+                try {
+                    ScopedValue.where(ISOLATED_DELIVERY, Boolean.TRUE).run(() -> deliver(events));
+                } finally {
+                    permits.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Only happens during shutdown; the events are still in the outbox
+            log.warn("Domain event executor shut down, {} events not delivered in-process", events.size());
+        }
+    }
+
+    /**
+     * Whether the current thread is delivering inside the asynchronous task, where listener
+     * failures are logged per listener instead of reaching the publisher
+     */
+    static boolean isolatesListenerFailures() {
+        return ISOLATED_DELIVERY.isBound();
+    }
+
+    private void deliver(Collection<?> events) {
+        for (Object event : events) {
+            if (mode == Mode.SYNC) {
+                eventPublisher.publishEvent(event);
+                continue;
+            }
+            try {
+                eventPublisher.publishEvent(event);
+            } catch (RuntimeException e) {
+                log.error("Failed to deliver domain event {}", event.getClass().getSimpleName(), e);
+            }
+        }
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        executor.shutdown();
+        if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+            log.warn("Domain event executor did not finish in-flight deliveries before shutdown");
+            executor.shutdownNow();
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package pl.factorymethod.rada.shared.events;
 
-import org.springframework.context.ApplicationEventPublisher;
+import java.util.Collection;
+import java.util.List;
+
 import org.springframework.stereotype.Component;
 
 import lombok.RequiredArgsConstructor;
@@ -10,12 +12,18 @@ import pl.factorymethod.rada.outbox.OutboxService;
 @RequiredArgsConstructor
 public class DomainEventPublisher implements EventPublisher {
 
-    private final ApplicationEventPublisher eventPublisher;
+    private final DomainEventDispatcher eventDispatcher;
     private final OutboxService outboxService;
 
     @Override
     public void publish(Object event) {
         outboxService.record(event);
-        eventPublisher.publishEvent(event);
+        eventDispatcher.dispatch(List.of(event));
+    }
+
+    @Override
+    public void publishAll(Collection<?> events) {
+        outboxService.recordAll(events);
+        eventDispatcher.dispatch(events);
     }
 }
@@ -1,6 +1,13 @@
 package pl.factorymethod.rada.shared.events;
 
+import java.util.Collection;
+
 public interface EventPublisher {
 
     void publish(Object event);
+
+    /**
+     * Publish several events at once; their outbox rows are written in a single batch.
+     */
+    void publishAll(Collection<?> events);
 }
@@ -0,0 +1,90 @@
+package pl.factorymethod.rada.shared.events;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.PayloadApplicationEvent;
+import org.springframework.context.event.SimpleApplicationEventMulticaster;
+import org.springframework.context.event.SmartApplicationListener;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Application event multicaster that times every listener invocation for domain events
+ * (timer {@code rada.events.listener}, tagged with event, listener and outcome). Listener
+ * failures propagate to the publisher as usual, so a synchronous {@code publishEvent} still
+ * fails its caller and rolls its transaction back. Only deliveries running inside
+ * {@link DomainEventDispatcher}'s asynchronous task are isolated per listener, so one broken
+ * listener does not stop the others. Framework events, which are {@link ApplicationEvent}
+ * subclasses rather than payloads, keep default behaviour.
+ */
+@Slf4j
+public class InstrumentedEventMulticaster extends SimpleApplicationEventMulticaster {
+
+    private static final String TIMER_NAME = "rada.events.listener";
+
+    private record TimerKey(String event, String listener, String outcome) {
+    }
+
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+    private final Map<TimerKey, Timer> timers = new ConcurrentHashMap<>();
+
+    public InstrumentedEventMulticaster(BeanFactory beanFactory, ObjectProvider<MeterRegistry> meterRegistry) {
+        super(beanFactory);
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    protected void invokeListener(ApplicationListener<?> listener, ApplicationEvent event) {
+        if (!(event instanceof PayloadApplicationEvent<?> payloadEvent)) {
+            super.invokeListener(listener, event);
+            return;
+        }
+
+        String eventName = payloadEvent.getPayload().getClass().getSimpleName();
+        String listenerName = listenerName(listener);
+        String outcome = "success";
+        long start = System.nanoTime();
+        try {
+            super.invokeListener(listener, event);
+        } catch (RuntimeException e) {
+            outcome = "failure";
+            if (!DomainEventDispatcher.isolatesListenerFailures()) {
+                throw e;
+            }
+            log.error("Listener {} failed for event {}", listenerName, eventName, e);
+        } finally {
+            record(new TimerKey(eventName, listenerName, outcome), System.nanoTime() - start);
+        }
+    }
+
+    private void record(TimerKey key, long durationNanos) {
+        Timer timer = timers.get(key);
+        if (timer == null) {
+            MeterRegistry registry = meterRegistry.getIfAvailable();
+            if (registry == null) {
+                return;
+            }
+            timer = timers.computeIfAbsent(key, missing -> Timer.builder(TIMER_NAME)
+                    .tag("event", missing.event())
+                    .tag("listener", missing.listener())
+                    .tag("outcome", missing.outcome())
+                    .register(registry));
+        }
+        timer.record(durationNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private String listenerName(ApplicationListener<?> listener) {
+        if (listener instanceof SmartApplicationListener smartListener && !smartListener.getListenerId().isEmpty()) {
+            return smartListener.getListenerId();
+        }
+        return listener.getClass().getName();
+    }
+}
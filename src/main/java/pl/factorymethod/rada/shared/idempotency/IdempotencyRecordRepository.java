@@ -0,0 +1,59 @@
+package pl.factorymethod.rada.shared.idempotency;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, Long> {
+
+    Optional<IdempotencyRecord> findByScopeAndIdempotencyKey(String scope, String idempotencyKey);
+
+    /**
+     * Claim a key for the current transaction. A key held by an uncommitted transaction blocks
+     * until that transaction ends; an expired key that was not purged yet is claimed again.
+     *
+     * @return 1 when the key was claimed, 0 when a live record already holds it
+     */
+    @Modifying
+    @Query(nativeQuery = true, value = """
+            INSERT INTO idempotency_keys AS k (scope, idempotency_key, request_hash, created_at, expires_at)
+            VALUES (:scope, :idempotencyKey, :requestHash, :createdAt, :expiresAt)
+            ON CONFLICT (scope, idempotency_key) DO UPDATE
+                SET request_hash = EXCLUDED.request_hash,
+                    response_body = NULL,
+                    created_at = EXCLUDED.created_at,
+                    expires_at = EXCLUDED.expires_at
+                WHERE k.expires_at < EXCLUDED.created_at
+            """)
+    int claim(
+            @Param("scope") String scope,
+            @Param("idempotencyKey") String idempotencyKey,
+            @Param("requestHash") String requestHash,
+            @Param("createdAt") LocalDateTime createdAt,
+            @Param("expiresAt") LocalDateTime expiresAt);
+
+    @Modifying
+    @Query(nativeQuery = true, value = """
+            UPDATE idempotency_keys
+            SET response_body = :responseBody
+            WHERE scope = :scope
+              AND idempotency_key = :idempotencyKey
+            """)
+    int storeResponse(
+            @Param("scope") String scope,
+            @Param("idempotencyKey") String idempotencyKey,
+            @Param("responseBody") String responseBody);
+
+    @Modifying
+    @Query(nativeQuery = true, value = """
+            DELETE FROM idempotency_keys
+            WHERE expires_at < :cutoff
+            """)
+    int deleteExpiredBefore(@Param("cutoff") LocalDateTime cutoff);
+}
@@ -0,0 +1,116 @@
+package pl.factorymethod.rada.shared.idempotency;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Runs requests sent with an {@code Idempotency-Key} at most once per key. The key is claimed,
+ * the action runs and its response is stored in one transaction, so a failed action releases
+ * the key and a concurrent retry waits for the first attempt instead of running in parallel.
+ * Retries get the stored response back without running the action again.
+ */
+@Slf4j
+@Service
+public class IdempotencyService {
+
+    static final int MAX_KEY_LENGTH = 255;
+
+    private final IdempotencyRecordRepository repository;
+    private final ObjectMapper objectMapper;
+    private final Duration ttl;
+
+    public IdempotencyService(
+            IdempotencyRecordRepository repository,
+            ObjectMapper objectMapper,
+            @Value("${rada.idempotency.ttl:PT24H}") Duration ttl) {
+        this.repository = repository;
+        this.objectMapper = objectMapper;
+        this.ttl = ttl;
+    }
+
+    /**
+     * Run {@code action} once for {@code scope} and {@code key}, or return the response stored by
+     * the first run. Reusing a key with a different request is rejected with 409.
+     */
+    @Transactional
+    public <T> T execute(String scope, String key, Object request, Class<T> responseType, Supplier<T> action) {
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Idempotency-Key must be 1 to " + MAX_KEY_LENGTH + " characters");
+        }
+
+        String requestHash = hash(serialize(request));
+        LocalDateTime now = LocalDateTime.now();
+        if (repository.claim(scope, key, requestHash, now, now.plus(ttl)) == 1) {
+            T response = action.get();
+            repository.storeResponse(scope, key, serialize(response));
+            return response;
+        }
+
+        IdempotencyRecord record = repository.findByScopeAndIdempotencyKey(scope, key)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.CONFLICT,
+                        "Idempotency key is being processed: " + key));
+        if (!record.getRequestHash().equals(requestHash)) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT,
+                    "Idempotency key was already used with a different request: " + key);
+        }
+        if (record.getResponseBody() == null) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT,
+                    "Idempotency key is being processed: " + key);
+        }
+
+        log.info("Replaying stored response: scope={}, key={}", scope, key);
+        return deserialize(record.getResponseBody(), responseType);
+    }
+
+    @Transactional
+    @Scheduled(cron = "${rada.idempotency.purge-cron:0 15 * * * *}")
+    public void purgeExpired() {
+        int deleted = repository.deleteExpiredBefore(LocalDateTime.now());
+        if (deleted > 0) {
+            log.info("Idempotency purge removed {} expired keys", deleted);
+        }
+    }
+
+    private String serialize(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to serialize " + value.getClass().getName(), e);
+        }
+    }
+
+    private <T> T deserialize(String json, Class<T> type) {
+        try {
+            return objectMapper.readValue(json, type);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to deserialize stored response as " + type.getName(), e);
+        }
+    }
+
+    private static String hash(String value) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
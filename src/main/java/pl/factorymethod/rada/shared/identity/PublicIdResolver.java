@@ -0,0 +1,124 @@
+package pl.factorymethod.rada.shared.identity;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import pl.factorymethod.rada.auth.repository.UserRepository;
+import pl.factorymethod.rada.classes.repository.SchoolClassRepository;
+import pl.factorymethod.rada.classes.repository.SchoolRepository;
+import pl.factorymethod.rada.model.School;
+import pl.factorymethod.rada.model.SchoolClass;
+import pl.factorymethod.rada.model.Student;
+import pl.factorymethod.rada.model.Target;
+import pl.factorymethod.rada.model.User;
+import pl.factorymethod.rada.targets.repository.StudentRepository;
+import pl.factorymethod.rada.targets.repository.TargetRepository;
+
+/**
+ * Resolves public UUIDs to internal ids through a bounded, TTL-evicting cache, and hands out
+ * {@code getReferenceById} proxies so setting a foreign key costs no query on a cache hit.
+ * Unknown ids are never cached, so a row created after a miss is found on the next call.
+ * A lookup made inside a transaction is cached only once that transaction commits, so a row
+ * inserted by a transaction that rolls back never ends up in the cache. The public id to id
+ * mapping never changes for a row, so entries need no eviction beyond size and TTL.
+ * Hit and miss counts are exported as the {@code rada.public-ids} cache metrics.
+ */
+@Slf4j
+@Component
+public class PublicIdResolver {
+
+    static final String CACHE_NAME = "rada.public-ids";
+
+    private record Key(Class<?> type, UUID publicId) {
+    }
+
+    private record Binding(Function<UUID, Optional<Long>> idLookup, Function<Long, ?> reference) {
+    }
+
+    private final Cache<Key, Long> cache;
+    private final Map<Class<?>, Binding> bindings;
+
+    public PublicIdResolver(
+            TargetRepository targetRepository,
+            StudentRepository studentRepository,
+            SchoolClassRepository schoolClassRepository,
+            SchoolRepository schoolRepository,
+            UserRepository userRepository,
+            ObjectProvider<MeterRegistry> meterRegistry,
+            @Value("${rada.public-ids.cache.maximum-size:100000}") long maximumSize,
+            @Value("${rada.public-ids.cache.ttl:PT30M}") Duration ttl) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        this.bindings = Map.of(
+                Target.class, new Binding(targetRepository::findIdByPublicId, targetRepository::getReferenceById),
+                Student.class, new Binding(studentRepository::findIdByPublicId, studentRepository::getReferenceById),
+                SchoolClass.class, new Binding(schoolClassRepository::findIdByPublicId, schoolClassRepository::getReferenceById),
+                School.class, new Binding(schoolRepository::findIdByPublicId, schoolRepository::getReferenceById),
+                User.class, new Binding(userRepository::findIdByPublicId, userRepository::getReferenceById));
+        meterRegistry.ifAvailable(registry -> CaffeineCacheMetrics.monitor(registry, cache, CACHE_NAME));
+    }
+
+    /**
+     * Internal id of the entity of {@code type} with the given public id, if it exists
+     */
+    public Optional<Long> findId(Class<?> type, UUID publicId) {
+        Binding binding = binding(type);
+        Key key = new Key(type, publicId);
+        Long cached = cache.getIfPresent(key);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        Optional<Long> id = binding.idLookup().apply(publicId);
+        id.ifPresent(value -> cacheWhenCommitted(key, value));
+        return id;
+    }
+
+    /**
+     * Uninitialised reference to the entity of {@code type} with the given public id, if it exists.
+     * Reading anything but the id from the reference loads the row.
+     */
+    public <T> Optional<T> findReference(Class<T> type, UUID publicId) {
+        Binding binding = binding(type);
+        return findId(type, publicId).map(id -> type.cast(binding.reference().apply(id)));
+    }
+
+    private void cacheWhenCommitted(Key key, Long id) {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()
+                || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            cache.put(key, id);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                cache.put(key, id);
+            }
+        });
+    }
+
+    private Binding binding(Class<?> type) {
+        Binding binding = bindings.get(type);
+        if (binding == null) {
+            throw new IllegalArgumentException("No public id mapping for " + type.getName());
+        }
+        return binding;
+    }
+}
@@ -1,14 +1,30 @@
 package pl.factorymethod.rada.shared.joincode;
 
 import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
-import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import pl.factorymethod.rada.auth.repository.StudentJoinCodeRepository;
 
+/**
+ * Generates join codes in batches: candidates are checked against the database with one
+ * query per round and only the collisions are regenerated. A pool of pre-checked codes is
+ * refilled in the background so most requests need no query at all; the unique constraint
+ * on {@code student_join_codes.join_code} remains the final guarantee.
+ */
+@Slf4j
 @Service
-@RequiredArgsConstructor
 public class JoinCodeService {
 
     private static final String ALPHABET = "ABCDEFGHJKLMNPQRSTUVWXYZ23456789";
@@ -17,15 +33,69 @@ public class JoinCodeService {
 
     private final StudentJoinCodeRepository studentJoinCodeRepository;
     private final SecureRandom secureRandom = new SecureRandom();
+    private final Queue<String> pool = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pooled = new AtomicInteger();
+    private final int poolSize;
+
+    public JoinCodeService(
+            StudentJoinCodeRepository studentJoinCodeRepository,
+            @Value("${rada.join-codes.pool-size:200}") int poolSize) {
+        this.studentJoinCodeRepository = studentJoinCodeRepository;
+        this.poolSize = poolSize;
+    }
 
     public String generateUniqueCode() {
-        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
-            String code = generateCode();
-            if (!studentJoinCodeRepository.existsByJoinCode(code)) {
-                return code;
+        return generateUniqueCodes(1).get(0);
+    }
+
+    /**
+     * Return {@code count} distinct codes not present in the database, taking pooled codes first
+     */
+    public List<String> generateUniqueCodes(int count) {
+        List<String> codes = new ArrayList<>(count);
+        String pooledCode;
+        while (codes.size() < count && (pooledCode = pool.poll()) != null) {
+            pooled.decrementAndGet();
+            codes.add(pooledCode);
+        }
+        if (codes.size() < count) {
+            codes.addAll(checkedCodes(count - codes.size(), new HashSet<>(codes)));
+        }
+        return codes;
+    }
+
+    /**
+     * Top the pool up once it has drained below half of its size
+     */
+    @Scheduled(fixedDelayString = "${rada.join-codes.refill-interval-ms:5000}")
+    public void refillPool() {
+        int missing = poolSize - pooled.get();
+        if (missing <= poolSize / 2) {
+            return;
+        }
+        List<String> codes = checkedCodes(missing, new HashSet<>(pool));
+        pool.addAll(codes);
+        pooled.addAndGet(codes.size());
+        log.debug("Join code pool refilled with {} codes", codes.size());
+    }
+
+    private List<String> checkedCodes(int count, Set<String> exclude) {
+        Set<String> accepted = new LinkedHashSet<>(count);
+        for (int attempt = 0; attempt < MAX_ATTEMPTS && accepted.size() < count; attempt++) {
+            Set<String> candidates = new LinkedHashSet<>();
+            while (candidates.size() < count - accepted.size()) {
+                String code = generateCode();
+                if (!exclude.contains(code) && !accepted.contains(code)) {
+                    candidates.add(code);
+                }
             }
+            candidates.removeAll(studentJoinCodeRepository.findExistingJoinCodes(candidates.toArray(String[]::new)));
+            accepted.addAll(candidates);
+        }
+        if (accepted.size() < count) {
+            throw new RuntimeException("Failed to generate unique join code");
         }
-        throw new RuntimeException("Failed to generate unique join code");
+        return new ArrayList<>(accepted);
     }
 
     private String generateCode() {
@@ -0,0 +1,25 @@
+package pl.factorymethod.rada.targets;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Split of a target's estimated value across its students in whole cents.
+ * Every student pays {@code baseFee}; the leftover cents are handed out one each to the
+ * first {@code upperFeeCount} students, so the frozen fees always add up to the total.
+ */
+public record FeeSplit(BigDecimal baseFee, BigDecimal upperFee, int upperFeeCount, int studentCount) {
+
+    private static final BigDecimal CENT = new BigDecimal("0.01");
+
+    public static FeeSplit evenly(BigDecimal total, int studentCount) {
+        if (studentCount <= 0) {
+            throw new IllegalArgumentException("Student count must be positive: " + studentCount);
+        }
+        BigDecimal totalInCents = total.setScale(2, RoundingMode.HALF_UP);
+        BigDecimal baseFee = totalInCents.divide(BigDecimal.valueOf(studentCount), 2, RoundingMode.DOWN);
+        BigDecimal remainder = totalInCents.subtract(baseFee.multiply(BigDecimal.valueOf(studentCount)));
+        int upperFeeCount = remainder.movePointRight(2).intValueExact();
+        return new FeeSplit(baseFee, baseFee.add(CENT), upperFeeCount, studentCount);
+    }
+}
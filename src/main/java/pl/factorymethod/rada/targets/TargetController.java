@@ -1,6 +1,9 @@
 package pl.factorymethod.rada.targets;
 
+import java.time.LocalDate;
+
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
@@ -10,9 +13,11 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -23,9 +28,12 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import pl.factorymethod.rada.targets.dto.AddStudentsToTargetRequest;
 import pl.factorymethod.rada.targets.dto.CreateTargetRequest;
+import pl.factorymethod.rada.targets.dto.TargetAssignmentResponse;
+import pl.factorymethod.rada.targets.dto.TargetProgressResponse;
 import pl.factorymethod.rada.targets.dto.TargetResponse;
 import pl.factorymethod.rada.targets.dto.TargetSummaryResponse;
 import pl.factorymethod.rada.targets.dto.TargetStudentResponse;
+import pl.factorymethod.rada.targets.dto.TargetsSliceResponse;
 
 @Slf4j
 @CrossOrigin(origins = "*")
@@ -35,6 +43,9 @@ import pl.factorymethod.rada.targets.dto.TargetStudentResponse;
 @Tag(name = "Targets", description = "Target management APIs")
 public class TargetController {
 
+        private static final int DEFAULT_PAGE_SIZE = 20;
+        private static final int MAX_PAGE_SIZE = 100;
+
         private final TargetService targetService;
 
         @Value("${rada.admin-token:dev-admin-token}")
@@ -54,17 +65,46 @@ public class TargetController {
                 return ResponseEntity.ok(response);
         }
 
-        @Operation(summary = "Add students to target", description = "Assign multiple students to a specific target")
+        @Operation(summary = "Add students to target", description = "Assign multiple students to a specific target. "
+                        + "Students already assigned are skipped; the response reports how many were added")
         @ApiResponses(value = {
-                        @ApiResponse(responseCode = "200", description = "Students successfully added to target"),
+                        @ApiResponse(responseCode = "200", description = "Students successfully added to target", content = @Content(schema = @Schema(implementation = TargetAssignmentResponse.class))),
                         @ApiResponse(responseCode = "400", description = "Invalid request", content = @Content),
                         @ApiResponse(responseCode = "404", description = "Target or student not found", content = @Content)
         })
         @PostMapping("/students")
-        public ResponseEntity<Void> addStudentsToTarget(@Valid @RequestBody AddStudentsToTargetRequest request) {
+        public ResponseEntity<TargetAssignmentResponse> addStudentsToTarget(@Valid @RequestBody AddStudentsToTargetRequest request) {
                 log.info("Adding {} students to target: {}", request.getStudentIds().size(), request.getTargetId());
-                targetService.addStudentsToTarget(request);
-                return ResponseEntity.ok().build();
+                int added = targetService.addStudentsToTarget(request);
+                return ResponseEntity.ok(new TargetAssignmentResponse(request.getTargetId(), added));
+        }
+
+        @Operation(summary = "Add class to target", description = "Assign every student of a class to a target")
+        @ApiResponses(value = {
+                        @ApiResponse(responseCode = "200", description = "Class students successfully added to target", content = @Content(schema = @Schema(implementation = TargetAssignmentResponse.class))),
+                        @ApiResponse(responseCode = "404", description = "Target or class not found", content = @Content)
+        })
+        @PostMapping("/{targetId}/classes/{classId}")
+        public ResponseEntity<TargetAssignmentResponse> addClassToTarget(
+                        @PathVariable String targetId,
+                        @PathVariable String classId) {
+                log.info("Adding class {} to target: {}", classId, targetId);
+                int added = targetService.addClassToTarget(targetId, classId);
+                return ResponseEntity.ok(new TargetAssignmentResponse(targetId, added));
+        }
+
+        @Operation(summary = "Add school to target", description = "Assign every student of every class in a school to a target")
+        @ApiResponses(value = {
+                        @ApiResponse(responseCode = "200", description = "School students successfully added to target", content = @Content(schema = @Schema(implementation = TargetAssignmentResponse.class))),
+                        @ApiResponse(responseCode = "404", description = "Target or school not found", content = @Content)
+        })
+        @PostMapping("/{targetId}/schools/{schoolId}")
+        public ResponseEntity<TargetAssignmentResponse> addSchoolToTarget(
+                        @PathVariable String targetId,
+                        @PathVariable String schoolId) {
+                log.info("Adding school {} to target: {}", schoolId, targetId);
+                int added = targetService.addSchoolToTarget(targetId, schoolId);
+                return ResponseEntity.ok(new TargetAssignmentResponse(targetId, added));
         }
 
         @Operation(summary = "Open contribution collection", description = "Freeze student fees for a target and emit a domain event")
@@ -81,13 +121,22 @@ public class TargetController {
                 return ResponseEntity.ok().build();
         }
 
-        @Operation(summary = "Get targets", description = "List all targets")
+        @Operation(summary = "Get targets", description = "List targets newest first using cursor pagination, "
+                        + "optionally filtered by due date range, school and class")
         @ApiResponses(value = {
-                        @ApiResponse(responseCode = "200", description = "Targets retrieved successfully", content = @Content(schema = @Schema(implementation = TargetSummaryResponse.class)))
+                        @ApiResponse(responseCode = "200", description = "Targets retrieved successfully", content = @Content(schema = @Schema(implementation = TargetsSliceResponse.class))),
+                        @ApiResponse(responseCode = "400", description = "Invalid cursor or filter", content = @Content)
         })
         @GetMapping
-        public ResponseEntity<java.util.List<TargetSummaryResponse>> getTargets() {
-                return ResponseEntity.ok(targetService.getTargets());
+        public ResponseEntity<TargetsSliceResponse> getTargets(
+                        @Parameter(description = "Earliest due date (inclusive)") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dueFrom,
+                        @Parameter(description = "Latest due date (inclusive)") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dueTo,
+                        @Parameter(description = "School ID") @RequestParam(required = false) String schoolId,
+                        @Parameter(description = "Class ID") @RequestParam(required = false) String classId,
+                        @Parameter(description = "Cursor returned as nextCursor by the previous page") @RequestParam(required = false) String after,
+                        @Parameter(description = "Page size (max 100)") @RequestParam(defaultValue = "20") int size) {
+                int resolvedSize = size <= 0 ? DEFAULT_PAGE_SIZE : Math.min(size, MAX_PAGE_SIZE);
+                return ResponseEntity.ok(targetService.getTargets(dueFrom, dueTo, schoolId, classId, after, resolvedSize));
         }
 
         @Operation(summary = "Get target", description = "Get target details by public ID")
@@ -100,6 +149,16 @@ public class TargetController {
                 return ResponseEntity.ok(targetService.getTarget(targetId));
         }
 
+        @Operation(summary = "Get target progress", description = "Get collected totals and outstanding students of a target")
+        @ApiResponses(value = {
+                        @ApiResponse(responseCode = "200", description = "Target progress retrieved successfully", content = @Content(schema = @Schema(implementation = TargetProgressResponse.class))),
+                        @ApiResponse(responseCode = "404", description = "Target not found", content = @Content)
+        })
+        @GetMapping("/{targetId}/progress")
+        public ResponseEntity<TargetProgressResponse> getTargetProgress(@PathVariable String targetId) {
+                return ResponseEntity.ok(targetService.getTargetProgress(targetId));
+        }
+
         @Operation(summary = "Get target students", description = "List students assigned to a target")
         @ApiResponses(value = {
                         @ApiResponse(responseCode = "200", description = "Target students retrieved successfully", content = @Content(schema = @Schema(implementation = TargetStudentResponse.class))),
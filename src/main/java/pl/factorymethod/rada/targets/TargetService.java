@@ -1,16 +1,15 @@
 package pl.factorymethod.rada.targets;
 
-import java.math.BigDecimal;
-import java.math.RoundingMode;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
 import java.util.UUID;
 
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.http.HttpStatus;
@@ -18,20 +17,28 @@ import org.springframework.web.server.ResponseStatusException;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import pl.factorymethod.rada.model.School;
+import pl.factorymethod.rada.model.SchoolClass;
 import pl.factorymethod.rada.model.Student;
 import pl.factorymethod.rada.model.Target;
 import pl.factorymethod.rada.model.TargetStudent;
 import pl.factorymethod.rada.shared.events.EventPublisher;
+import pl.factorymethod.rada.shared.identity.PublicIdResolver;
+import pl.factorymethod.rada.shared.pagination.KeysetCursor;
 import pl.factorymethod.rada.targets.dto.AddStudentsToTargetRequest;
 import pl.factorymethod.rada.targets.dto.CreateTargetRequest;
+import pl.factorymethod.rada.targets.dto.TargetProgressResponse;
 import pl.factorymethod.rada.targets.dto.TargetResponse;
 import pl.factorymethod.rada.targets.dto.TargetSummaryResponse;
 import pl.factorymethod.rada.targets.dto.TargetStudentResponse;
+import pl.factorymethod.rada.targets.dto.TargetsSliceResponse;
 import pl.factorymethod.rada.targets.event.TargetContributionCollectionOpenedEvent;
 import pl.factorymethod.rada.targets.event.StudentsAddedToTargetEvent;
 import pl.factorymethod.rada.targets.repository.StudentRepository;
+import pl.factorymethod.rada.targets.repository.TargetProgress;
 import pl.factorymethod.rada.targets.repository.TargetRepository;
 import pl.factorymethod.rada.targets.repository.TargetStudentRepository;
+import pl.factorymethod.rada.targets.repository.TargetStudentSummary;
 
 @Slf4j
 @Service
@@ -42,6 +49,7 @@ public class TargetService {
         private final StudentRepository studentRepository;
         private final TargetStudentRepository targetStudentRepository;
         private final EventPublisher eventPublisher;
+        private final PublicIdResolver publicIdResolver;
 
         @Transactional
         public TargetResponse createTarget(CreateTargetRequest request) {
@@ -69,13 +77,9 @@ public class TargetService {
         }
 
         @Transactional
-        public void addStudentsToTarget(AddStudentsToTargetRequest request) {
+        public int addStudentsToTarget(AddStudentsToTargetRequest request) {
                 UUID targetPublicId = UUID.fromString(request.getTargetId());
-
-                // Find target by public ID
-                Target target = targetRepository.findByPublicId(targetPublicId)
-                                .orElseThrow(() -> new ResponseStatusException(
-                                                HttpStatus.NOT_FOUND, "Target not found: " + request.getTargetId()));
+                long targetId = findTargetId(targetPublicId);
 
                 // Convert student IDs to UUIDs
                 List<UUID> requestedStudentIds = request.getStudentIds().stream()
@@ -83,66 +87,66 @@ public class TargetService {
                                 .distinct()
                                 .toList();
 
-                // Find all students by public IDs
-                List<Student> students = studentRepository.findByPublicIdIn(requestedStudentIds);
-
-                if (students.size() != requestedStudentIds.size()) {
+                long foundStudents = studentRepository.countByPublicIdIn(requestedStudentIds);
+                if (foundStudents != requestedStudentIds.size()) {
                         log.warn("Not all students found. Requested: {}, Found: {}",
-                                        requestedStudentIds.size(), students.size());
+                                        requestedStudentIds.size(), foundStudents);
                         throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Some students not found");
                 }
 
-                List<TargetStudent> existingTargetStudents = targetStudentRepository
-                                .findByTargetAndStudent_PublicIdIn(target, requestedStudentIds);
-                Set<UUID> existingStudentIds = new HashSet<>(existingTargetStudents.size());
-                for (TargetStudent targetStudent : existingTargetStudents) {
-                        existingStudentIds.add(targetStudent.getStudent().getPublicId());
-                }
-
-                List<UUID> newStudentIds = new ArrayList<>();
-                for (UUID studentId : requestedStudentIds) {
-                        if (!existingStudentIds.contains(studentId)) {
-                                newStudentIds.add(studentId);
-                        }
-                }
+                LocalDateTime now = LocalDateTime.now();
+                List<UUID> newStudentIds = targetStudentRepository.insertStudents(targetId, requestedStudentIds, now);
+                return publishStudentsAdded(targetPublicId, newStudentIds, now);
+        }
 
-                if (newStudentIds.isEmpty()) {
-                        log.info("No new students to add to target {}", target.getPublicId());
-                        return;
+        @Transactional
+        public int addClassToTarget(String targetId, String classId) {
+                UUID targetPublicId = UUID.fromString(targetId);
+                long targetInternalId = findTargetId(targetPublicId);
+                UUID classPublicId = UUID.fromString(classId);
+                if (publicIdResolver.findId(SchoolClass.class, classPublicId).isEmpty()) {
+                        throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Class not found: " + classId);
                 }
 
-                Map<UUID, Student> studentsById = new HashMap<>(students.size());
-                for (Student student : students) {
-                        studentsById.put(student.getPublicId(), student);
-                }
+                LocalDateTime now = LocalDateTime.now();
+                List<UUID> newStudentIds = targetStudentRepository.insertClassStudents(targetInternalId, classPublicId, now);
+                return publishStudentsAdded(targetPublicId, newStudentIds, now);
+        }
 
-                List<Student> newStudents = new ArrayList<>(newStudentIds.size());
-                for (UUID studentId : newStudentIds) {
-                        newStudents.add(studentsById.get(studentId));
+        @Transactional
+        public int addSchoolToTarget(String targetId, String schoolId) {
+                UUID targetPublicId = UUID.fromString(targetId);
+                long targetInternalId = findTargetId(targetPublicId);
+                UUID schoolPublicId = UUID.fromString(schoolId);
+                if (publicIdResolver.findId(School.class, schoolPublicId).isEmpty()) {
+                        throw new ResponseStatusException(HttpStatus.NOT_FOUND, "School not found: " + schoolId);
                 }
 
-                // Create TargetStudent entries
                 LocalDateTime now = LocalDateTime.now();
-                List<TargetStudent> targetStudents = newStudents.stream()
-                                .map(student -> {
-                                        TargetStudent targetStudent = new TargetStudent();
-                                        targetStudent.setTarget(target);
-                                        targetStudent.setStudent(student);
-                                        targetStudent.setCreatedAt(now);
-                                        return targetStudent;
-                                })
-                                .toList();
+                List<UUID> newStudentIds = targetStudentRepository.insertSchoolStudents(targetInternalId, schoolPublicId, now);
+                return publishStudentsAdded(targetPublicId, newStudentIds, now);
+        }
 
-                // Save all associations
-                targetStudentRepository.saveAll(targetStudents);
+        private long findTargetId(UUID targetPublicId) {
+                return publicIdResolver.findId(Target.class, targetPublicId)
+                                .orElseThrow(() -> new ResponseStatusException(
+                                                HttpStatus.NOT_FOUND, "Target not found: " + targetPublicId));
+        }
+
+        private int publishStudentsAdded(UUID targetPublicId, List<UUID> newStudentIds, LocalDateTime addedAt) {
+                if (newStudentIds.isEmpty()) {
+                        log.info("No new students to add to target {}", targetPublicId);
+                        return 0;
+                }
 
                 eventPublisher.publish(new StudentsAddedToTargetEvent(
-                                target.getPublicId(),
+                                targetPublicId,
                                 newStudentIds,
                                 newStudentIds.size(),
-                                now));
+                                addedAt));
 
-                log.info("Successfully added {} students to target {}", newStudentIds.size(), target.getPublicId());
+                log.info("Successfully added {} students to target {}", newStudentIds.size(), targetPublicId);
+                return newStudentIds.size();
         }
 
         @Transactional
@@ -152,41 +156,66 @@ public class TargetService {
                 Target target = targetRepository.findByPublicId(targetPublicId)
                                 .orElseThrow(() -> new RuntimeException("Target not found: " + targetId));
 
-                List<TargetStudent> targetStudents = targetStudentRepository.findByTarget(target);
+                long studentCount = targetStudentRepository.countByTarget(target);
 
-                if (targetStudents.isEmpty()) {
+                if (studentCount == 0) {
                         throw new RuntimeException("No students assigned to target: " + targetId);
                 }
 
-                BigDecimal feePerStudent = target.getEstimatedValue()
-                                .divide(BigDecimal.valueOf(targetStudents.size()), 2, RoundingMode.HALF_UP);
+                FeeSplit split = FeeSplit.evenly(target.getEstimatedValue(), Math.toIntExact(studentCount));
                 LocalDateTime now = LocalDateTime.now();
 
-                targetStudents.forEach(targetStudent -> {
-                        targetStudent.setFeeAmount(feePerStudent);
-                        targetStudent.setFeeCalculatedAt(now);
-                });
-
-                targetStudentRepository.saveAll(targetStudents);
+                int frozen = targetStudentRepository.freezeFees(
+                                target.getId(),
+                                split.baseFee(),
+                                split.upperFee(),
+                                split.upperFeeCount(),
+                                now);
+
+                if (frozen != split.studentCount()) {
+                        // Assignments changed between count and update; the split would not add up
+                        throw new ResponseStatusException(HttpStatus.CONFLICT,
+                                        "Students assigned to target changed while opening collection: " + targetId);
+                }
 
                 eventPublisher.publish(new TargetContributionCollectionOpenedEvent(
                                 target.getPublicId(),
                                 now,
-                                feePerStudent,
-                                targetStudents.size()));
+                                split.baseFee(),
+                                frozen));
 
-                log.info("Contribution collection opened for target {}. Fee per student: {}, students: {}",
-                                target.getPublicId(), feePerStudent, targetStudents.size());
+                log.info("Contribution collection opened for target {}. Fee per student: {} ({} students pay {}), students: {}",
+                                target.getPublicId(), split.baseFee(), split.upperFeeCount(), split.upperFee(), frozen);
         }
 
         @Transactional(readOnly = true)
-        public List<TargetSummaryResponse> getTargets() {
-                List<Target> targets = targetRepository.findAll();
-                List<TargetSummaryResponse> responses = new ArrayList<>(targets.size());
-                for (Target target : targets) {
-                        responses.add(mapToSummary(target));
+        public TargetsSliceResponse getTargets(LocalDate dueFrom, LocalDate dueTo, String schoolId, String classId,
+                        String after, int size) {
+                KeysetCursor cursor = KeysetCursor.decode(after);
+                UUID schoolPublicId = schoolId != null ? UUID.fromString(schoolId) : null;
+                UUID classPublicId = classId != null ? UUID.fromString(classId) : null;
+
+                Slice<Target> slice = targetRepository.findPage(
+                                cursor != null ? cursor.timestamp() : null,
+                                cursor != null ? cursor.id() : null,
+                                dueFrom,
+                                dueTo,
+                                schoolPublicId,
+                                classPublicId,
+                                PageRequest.of(0, size));
+
+                List<Target> targets = slice.getContent();
+                String nextCursor = null;
+                if (slice.hasNext()) {
+                        Target last = targets.get(targets.size() - 1);
+                        nextCursor = new KeysetCursor(last.getCreatedAt(), last.getId()).encode();
                 }
-                return responses;
+
+                return TargetsSliceResponse.builder()
+                                .targets(mapToSummaries(targets))
+                                .hasNext(slice.hasNext())
+                                .nextCursor(nextCursor)
+                                .build();
         }
 
         @Transactional(readOnly = true)
@@ -194,13 +223,34 @@ public class TargetService {
                 UUID targetPublicId = UUID.fromString(targetId);
                 Target target = targetRepository.findByPublicId(targetPublicId)
                                 .orElseThrow(() -> new RuntimeException("Target not found: " + targetId));
-                return mapToSummary(target);
+                return mapToSummaries(List.of(target)).get(0);
+        }
+
+        @Transactional(readOnly = true)
+        public TargetProgressResponse getTargetProgress(String targetId) {
+                UUID targetPublicId = UUID.fromString(targetId);
+                TargetProgress progress = targetRepository.findProgressByPublicId(targetPublicId)
+                                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND,
+                                                "Target not found: " + targetId));
+                return TargetProgressResponse.builder()
+                                .targetId(progress.getTargetPublicId().toString())
+                                .estimatedValue(progress.getEstimatedValue())
+                                .collectedGross(progress.getCollectedGross())
+                                .netToTarget(progress.getNetToTarget())
+                                .platformProfit(progress.getPlatformProfit())
+                                .contributionCount(progress.getContributionCount())
+                                .contributorCount(progress.getContributorCount())
+                                .studentCount(progress.getStudentCount())
+                                .outstandingCount(progress.getOutstandingCount())
+                                .updatedAt(progress.getUpdatedAt())
+                                .build();
         }
 
         @Transactional(readOnly = true)
         public List<TargetStudentResponse> getTargetStudents(String targetId) {
                 UUID targetPublicId = UUID.fromString(targetId);
-                Target target = targetRepository.findByPublicId(targetPublicId)
+                // Only the id is needed to list the assignments
+                Target target = publicIdResolver.findReference(Target.class, targetPublicId)
                                 .orElseThrow(() -> new RuntimeException("Target not found: " + targetId));
 
                 List<TargetStudent> targetStudents = targetStudentRepository.findByTarget(target);
@@ -220,30 +270,33 @@ public class TargetService {
         @Transactional(readOnly = true)
         public List<TargetSummaryResponse> getTargetsByClass(String classId) {
                 UUID classPublicId = UUID.fromString(classId);
-                List<Target> targets = targetRepository.findByClassPublicId(classPublicId);
-                List<TargetSummaryResponse> responses = new ArrayList<>(targets.size());
+                return mapToSummaries(targetRepository.findByClassPublicId(classPublicId));
+        }
+
+        private List<TargetSummaryResponse> mapToSummaries(List<Target> targets) {
+                if (targets.isEmpty()) {
+                        return List.of();
+                }
+
+                List<Long> targetIds = new ArrayList<>(targets.size());
                 for (Target target : targets) {
-                        responses.add(mapToSummary(target));
+                        targetIds.add(target.getId());
                 }
-                return responses;
-        }
 
-        private TargetSummaryResponse mapToSummary(Target target) {
-                List<TargetStudent> targetStudents = targetStudentRepository.findByTarget(target);
-                int studentCount = targetStudents.size();
-                BigDecimal feePerStudent = null;
-                LocalDateTime feeCalculatedAt = null;
+                // One grouped query for the whole page instead of loading target_students per target
+                Map<Long, TargetStudentSummary> summariesByTargetId = new HashMap<>(targets.size());
+                for (TargetStudentSummary summary : targetStudentRepository.summarizeByTargetIds(targetIds)) {
+                        summariesByTargetId.put(summary.getTargetId(), summary);
+                }
 
-                for (TargetStudent targetStudent : targetStudents) {
-                        if (targetStudent.getFeeCalculatedAt() != null) {
-                                if (feeCalculatedAt == null
-                                                || targetStudent.getFeeCalculatedAt().isAfter(feeCalculatedAt)) {
-                                        feeCalculatedAt = targetStudent.getFeeCalculatedAt();
-                                        feePerStudent = targetStudent.getFeeAmount();
-                                }
-                        }
+                List<TargetSummaryResponse> responses = new ArrayList<>(targets.size());
+                for (Target target : targets) {
+                        responses.add(mapToSummary(target, summariesByTargetId.get(target.getId())));
                 }
+                return responses;
+        }
 
+        private TargetSummaryResponse mapToSummary(Target target, TargetStudentSummary summary) {
                 return TargetSummaryResponse.builder()
                                 .publicId(target.getPublicId().toString())
                                 .description(target.getDescription())
@@ -251,9 +304,9 @@ public class TargetService {
                                 .dueTo(target.getDueTo())
                                 .estimatedValue(target.getEstimatedValue())
                                 .createdAt(target.getCreatedAt())
-                                .studentCount(studentCount)
-                                .feePerStudent(feePerStudent)
-                                .feeCalculatedAt(feeCalculatedAt)
+                                .studentCount(summary != null ? (int) summary.getStudentCount() : 0)
+                                .feePerStudent(summary != null ? summary.getFeePerStudent() : null)
+                                .feeCalculatedAt(summary != null ? summary.getFeeCalculatedAt() : null)
                                 .build();
         }
 }
@@ -0,0 +1,16 @@
+package pl.factorymethod.rada.targets.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TargetAssignmentResponse {
+
+    private String targetId;
+    private int addedCount;
+}
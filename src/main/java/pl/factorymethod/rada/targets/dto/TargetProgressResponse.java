@@ -0,0 +1,31 @@
+package pl.factorymethod.rada.targets.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TargetProgressResponse {
+
+    private String targetId;
+    private BigDecimal estimatedValue;
+    private BigDecimal collectedGross;
+    private BigDecimal netToTarget;
+    private BigDecimal platformProfit;
+    private long contributionCount;
+    private int contributorCount;
+    private long studentCount;
+
+    /**
+     * Assigned students who have not paid their full fee yet
+     */
+    private long outstandingCount;
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,19 @@
+package pl.factorymethod.rada.targets.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TargetsSliceResponse {
+
+    private List<TargetSummaryResponse> targets;
+    private boolean hasNext;
+    private String nextCursor;
+}
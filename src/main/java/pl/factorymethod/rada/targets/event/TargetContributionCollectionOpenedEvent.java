@@ -9,4 +9,5 @@ public record TargetContributionCollectionOpenedEvent(
     LocalDateTime openedAt,
     BigDecimal feePerStudent,
     int studentCount
+) {
 }
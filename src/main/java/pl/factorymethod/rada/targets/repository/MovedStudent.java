@@ -0,0 +1,13 @@
+package pl.factorymethod.rada.targets.repository;
+
+import java.util.UUID;
+
+/**
+ * A student moved to another class, with the number it had in its previous class.
+ */
+public interface MovedStudent {
+
+    UUID getStudentPublicId();
+
+    String getOldNumber();
+}
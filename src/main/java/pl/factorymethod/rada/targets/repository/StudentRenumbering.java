@@ -0,0 +1,15 @@
+package pl.factorymethod.rada.targets.repository;
+
+import java.util.UUID;
+
+/**
+ * A student whose number in its class changed during renumbering.
+ */
+public interface StudentRenumbering {
+
+    UUID getStudentPublicId();
+
+    String getOldNumber();
+
+    String getNewNumber();
+}
@@ -1,10 +1,13 @@
 package pl.factorymethod.rada.targets.repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import pl.factorymethod.rada.model.Student;
@@ -14,10 +17,72 @@ import pl.factorymethod.rada.model.SchoolClass;
 public interface StudentRepository extends JpaRepository<Student, Long> {
     
     Optional<Student> findByPublicId(UUID publicId);
+
+    @Query("select e.id from Student e where e.publicId = :publicId")
+    Optional<Long> findIdByPublicId(@Param("publicId") UUID publicId);
     
     List<Student> findByPublicIdIn(List<UUID> publicIds);
 
+    long countByPublicIdIn(List<UUID> publicIds);
+
     long countBySchoolClass(SchoolClass schoolClass);
 
     List<Student> findBySchoolClassOrderByLastNameAscFirstNameAsc(SchoolClass schoolClass);
+
+    /**
+     * Number the students of a class 1..n by last and first name in one statement, writing
+     * only the rows whose number actually changes. Returns the changed students.
+     */
+    @Query(nativeQuery = true, value = """
+            WITH renumbered AS (
+                UPDATE students s
+                SET number = r.new_number
+                FROM (
+                    SELECT id,
+                           number AS old_number,
+                           CAST(row_number() OVER (ORDER BY last_name, first_name, id) AS varchar) AS new_number
+                    FROM students
+                    WHERE class_id = :classId) r
+                WHERE s.id = r.id
+                  AND s.number IS DISTINCT FROM r.new_number
+                RETURNING s.public_id AS student_public_id, r.old_number, s.number AS new_number)
+            SELECT student_public_id AS studentPublicId, old_number AS oldNumber, new_number AS newNumber
+            FROM renumbered
+            """)
+    List<StudentRenumbering> renumberClass(@Param("classId") Long classId);
+
+    /**
+     * Move the given students of one class to another in one statement. Students not in the
+     * source class are left untouched and missing from the result.
+     */
+    @Query(nativeQuery = true, value = """
+            WITH moved AS (
+                UPDATE students
+                SET class_id = :targetClassId
+                WHERE class_id = :sourceClassId
+                  AND public_id IN (:studentIds)
+                RETURNING public_id, number)
+            SELECT public_id AS studentPublicId, number AS oldNumber
+            FROM moved
+            """)
+    List<MovedStudent> moveStudents(
+            @Param("sourceClassId") Long sourceClassId,
+            @Param("targetClassId") Long targetClassId,
+            @Param("studentIds") Collection<UUID> studentIds);
+
+    /**
+     * Move every student of one class to another in one statement
+     */
+    @Query(nativeQuery = true, value = """
+            WITH moved AS (
+                UPDATE students
+                SET class_id = :targetClassId
+                WHERE class_id = :sourceClassId
+                RETURNING public_id, number)
+            SELECT public_id AS studentPublicId, number AS oldNumber
+            FROM moved
+            """)
+    List<MovedStudent> moveAllStudents(
+            @Param("sourceClassId") Long sourceClassId,
+            @Param("targetClassId") Long targetClassId);
 }
@@ -0,0 +1,32 @@
+package pl.factorymethod.rada.targets.repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Collection progress of a target, read from the maintained {@code target_contribution_totals}
+ * row instead of summing its contributions.
+ */
+public interface TargetProgress {
+
+    UUID getTargetPublicId();
+
+    BigDecimal getEstimatedValue();
+
+    BigDecimal getCollectedGross();
+
+    BigDecimal getNetToTarget();
+
+    BigDecimal getPlatformProfit();
+
+    long getContributionCount();
+
+    int getContributorCount();
+
+    long getStudentCount();
+
+    long getOutstandingCount();
+
+    LocalDateTime getUpdatedAt();
+}
@@ -1,9 +1,13 @@
 package pl.factorymethod.rada.targets.repository;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.List;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -16,6 +20,9 @@ public interface TargetRepository extends JpaRepository<Target, Long> {
     
     Optional<Target> findByPublicId(UUID publicId);
 
+    @Query("select e.id from Target e where e.publicId = :publicId")
+    Optional<Long> findIdByPublicId(@Param("publicId") UUID publicId);
+
     @Query("""
             select distinct t
             from Target t
@@ -24,4 +31,66 @@ public interface TargetRepository extends JpaRepository<Target, Long> {
             where s.schoolClass.publicId = :classId
             """)
     List<Target> findByClassPublicId(@Param("classId") UUID classPublicId);
+
+    /**
+     * Keyset page of targets ordered by {@code (createdAt DESC, id DESC)}. Pass a null
+     * cursor for the first page; every filter is optional. Always request page 0 —
+     * the cursor, not the offset, positions the page.
+     */
+    @Query("""
+            select t
+            from Target t
+            where (:afterCreatedAt is null
+                   or t.createdAt < :afterCreatedAt
+                   or (t.createdAt = :afterCreatedAt and t.id < :afterId))
+              and (:dueFrom is null or t.dueTo >= :dueFrom)
+              and (:dueTo is null or t.dueTo <= :dueTo)
+              and (:classId is null or exists (
+                    select 1
+                    from TargetStudent ts
+                    where ts.target = t
+                      and ts.student.schoolClass.publicId = :classId))
+              and (:schoolId is null or exists (
+                    select 1
+                    from TargetStudent ts
+                    where ts.target = t
+                      and ts.student.schoolClass.school.publicId = :schoolId))
+            order by t.createdAt desc, t.id desc
+            """)
+    Slice<Target> findPage(
+            @Param("afterCreatedAt") LocalDateTime afterCreatedAt,
+            @Param("afterId") Long afterId,
+            @Param("dueFrom") LocalDate dueFrom,
+            @Param("dueTo") LocalDate dueTo,
+            @Param("schoolId") UUID schoolPublicId,
+            @Param("classId") UUID classPublicId,
+            Pageable pageable);
+
+    /**
+     * Progress of a target from its running totals. Students are outstanding until what they
+     * paid covers their current fee; this is counted over the target's assignments on every
+     * read, so it stays right when fees are frozen again or students are added.
+     */
+    @Query(nativeQuery = true, value = """
+            SELECT t.public_id AS targetPublicId,
+                   t.estimated_value AS estimatedValue,
+                   COALESCE(c.collected_gross, 0) AS collectedGross,
+                   COALESCE(c.net_to_target, 0) AS netToTarget,
+                   COALESCE(c.platform_profit, 0) AS platformProfit,
+                   COALESCE(c.contribution_count, 0) AS contributionCount,
+                   COALESCE(c.contributor_count, 0) AS contributorCount,
+                   s.student_count AS studentCount,
+                   s.outstanding_count AS outstandingCount,
+                   c.updated_at AS updatedAt
+            FROM targets t
+            LEFT JOIN target_contribution_totals c ON c.target_id = t.id
+            CROSS JOIN LATERAL (
+                SELECT count(*) AS student_count,
+                       count(*) FILTER (WHERE ts.fee_amount IS NULL OR ts.paid_amount < ts.fee_amount)
+                           AS outstanding_count
+                FROM target_students ts
+                WHERE ts.target_id = t.id) s
+            WHERE t.public_id = :publicId
+            """)
+    Optional<TargetProgress> findProgressByPublicId(@Param("publicId") UUID publicId);
 }
@@ -1,9 +1,15 @@
 package pl.factorymethod.rada.targets.repository;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import pl.factorymethod.rada.model.Target;
@@ -15,5 +21,105 @@ public interface TargetStudentRepository extends JpaRepository<TargetStudent, Ta
 
 	List<TargetStudent> findByTarget(Target target);
 
-	List<TargetStudent> findByTargetAndStudent_PublicIdIn(Target target, List<UUID> studentPublicIds);
+	long countByTarget(Target target);
+
+	/**
+	 * Assign the given students to a target without loading them, skipping existing
+	 * assignments. Returns public ids of the students that were actually inserted.
+	 */
+	@Query(nativeQuery = true, value = """
+			WITH inserted AS (
+			    INSERT INTO target_students (target_id, student_id, created_at)
+			    SELECT :targetId, s.id, :createdAt
+			    FROM students s
+			    WHERE s.public_id IN (:studentIds)
+			    ON CONFLICT (target_id, student_id) DO NOTHING
+			    RETURNING student_id)
+			SELECT s.public_id
+			FROM inserted i
+			JOIN students s ON s.id = i.student_id
+			""")
+	List<UUID> insertStudents(@Param("targetId") Long targetId,
+			@Param("studentIds") Collection<UUID> studentPublicIds,
+			@Param("createdAt") LocalDateTime createdAt);
+
+	/**
+	 * Assign every student of a class to a target, skipping existing assignments.
+	 */
+	@Query(nativeQuery = true, value = """
+			WITH inserted AS (
+			    INSERT INTO target_students (target_id, student_id, created_at)
+			    SELECT :targetId, s.id, :createdAt
+			    FROM students s
+			    JOIN classes c ON c.id = s.class_id
+			    WHERE c.public_id = :classId
+			    ON CONFLICT (target_id, student_id) DO NOTHING
+			    RETURNING student_id)
+			SELECT s.public_id
+			FROM inserted i
+			JOIN students s ON s.id = i.student_id
+			""")
+	List<UUID> insertClassStudents(@Param("targetId") Long targetId,
+			@Param("classId") UUID classPublicId,
+			@Param("createdAt") LocalDateTime createdAt);
+
+	/**
+	 * Assign every student of every class in a school to a target, skipping existing assignments.
+	 */
+	@Query(nativeQuery = true, value = """
+			WITH inserted AS (
+			    INSERT INTO target_students (target_id, student_id, created_at)
+			    SELECT :targetId, s.id, :createdAt
+			    FROM students s
+			    JOIN classes c ON c.id = s.class_id
+			    JOIN schools sc ON sc.id = c.school_id
+			    WHERE sc.public_id = :schoolId
+			    ON CONFLICT (target_id, student_id) DO NOTHING
+			    RETURNING student_id)
+			SELECT s.public_id
+			FROM inserted i
+			JOIN students s ON s.id = i.student_id
+			""")
+	List<UUID> insertSchoolStudents(@Param("targetId") Long targetId,
+			@Param("schoolId") UUID schoolPublicId,
+			@Param("createdAt") LocalDateTime createdAt);
+
+	/**
+	 * Freeze fees for every student of a target in one statement. Students are ranked by
+	 * internal id and the first {@code upperFeeCount} get {@code upperFee} (base fee plus the
+	 * rounding remainder cent), everyone else gets {@code baseFee}.
+	 */
+	@Modifying
+	@Query(nativeQuery = true, value = """
+			UPDATE target_students ts
+			SET fee_amount = CASE WHEN ranked.position <= :upperFeeCount THEN :upperFee ELSE :baseFee END,
+			    fee_calculated_at = :calculatedAt
+			FROM (SELECT student_id, row_number() OVER (ORDER BY student_id) AS position
+			      FROM target_students
+			      WHERE target_id = :targetId) ranked
+			WHERE ts.target_id = :targetId
+			  AND ts.student_id = ranked.student_id
+			""")
+	int freezeFees(@Param("targetId") Long targetId,
+			@Param("baseFee") BigDecimal baseFee,
+			@Param("upperFee") BigDecimal upperFee,
+			@Param("upperFeeCount") int upperFeeCount,
+			@Param("calculatedAt") LocalDateTime calculatedAt);
+
+	/**
+	 * Student count plus the most recently frozen fee for each of the given targets,
+	 * in a single grouped query. When the split left remainder cents the base (lowest)
+	 * fee is reported. Targets without students are absent from the result.
+	 */
+	@Query(nativeQuery = true, value = """
+			SELECT ts.target_id AS targetId,
+			       count(*) AS studentCount,
+			       (array_agg(ts.fee_amount ORDER BY ts.fee_calculated_at DESC, ts.fee_amount)
+			            FILTER (WHERE ts.fee_calculated_at IS NOT NULL))[1] AS feePerStudent,
+			       max(ts.fee_calculated_at) AS feeCalculatedAt
+			FROM target_students ts
+			WHERE ts.target_id IN (:targetIds)
+			GROUP BY ts.target_id
+			""")
+	List<TargetStudentSummary> summarizeByTargetIds(@Param("targetIds") Collection<Long> targetIds);
 }
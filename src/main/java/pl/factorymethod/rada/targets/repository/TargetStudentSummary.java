@@ -0,0 +1,19 @@
+package pl.factorymethod.rada.targets.repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Per-target aggregate over {@code target_students}, computed in SQL so summary
+ * listings never hydrate individual {@link pl.factorymethod.rada.model.TargetStudent} rows.
+ */
+public interface TargetStudentSummary {
+
+	Long getTargetId();
+
+	long getStudentCount();
+
+	BigDecimal getFeePerStudent();
+
+	LocalDateTime getFeeCalculatedAt();
+}
@@ -70,7 +70,7 @@ public class UserService {
 
         user = userRepository.save(user);
 
-        StudentJoinCode joinCode = createJoinCodeLink(student, user);
+        StudentJoinCode joinCode = createJoinCodeLink(student, user, joinCodeService.generateUniqueCode());
         studentJoinCodeRepository.save(joinCode);
         log.info("User created: publicId={}, email={}, joinCode={}, DEK generated (length={})",
                 user.getPublicId(), user.getEmail(), joinCode.getJoinCode(), dek.length);
@@ -161,18 +161,21 @@ public class UserService {
         }
 
         List<User> savedUsers = userRepository.saveAll(usersToSave);
+        List<String> codes = joinCodeService.generateUniqueCodes(savedUsers.size());
         List<StudentJoinCode> joinCodes = new ArrayList<>(savedUsers.size());
         for (int i = 0; i < savedUsers.size(); i++) {
-            joinCodes.add(createJoinCodeLink(studentsForUsers.get(i), savedUsers.get(i)));
+            joinCodes.add(createJoinCodeLink(studentsForUsers.get(i), savedUsers.get(i), codes.get(i)));
         }
         studentJoinCodeRepository.saveAll(joinCodes);
         LocalDateTime now = LocalDateTime.now();
+        List<UserCreatedEvent> events = new ArrayList<>(savedUsers.size());
         for (User user : savedUsers) {
-            eventPublisher.publish(new UserCreatedEvent(
+            events.add(new UserCreatedEvent(
                     user.getPublicId(),
                     user.getEmail(),
                     now));
         }
+        eventPublisher.publishAll(events);
 
         List<UserResponse> responses = new ArrayList<>(savedUsers.size());
         for (User user : savedUsers) {
@@ -201,11 +204,11 @@ public class UserService {
         }
     }
 
-    private StudentJoinCode createJoinCodeLink(Student student, User user) {
+    private StudentJoinCode createJoinCodeLink(Student student, User user, String code) {
         StudentJoinCode joinCode = new StudentJoinCode();
         joinCode.setStudent(student);
         joinCode.setUser(user);
-        joinCode.setJoinCode(joinCodeService.generateUniqueCode());
+        joinCode.setJoinCode(code);
         return joinCode;
     }
 }
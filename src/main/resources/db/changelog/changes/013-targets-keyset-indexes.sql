@@ -0,0 +1,17 @@
+-- liquibase formatted sql
+
+-- changeset adrian:013-targets-keyset-indexes
+-- Keyset pagination of targets on (created_at, id), newest first
+CREATE INDEX IF NOT EXISTS idx_targets_created_at_id
+    ON public.targets (created_at DESC, id DESC);
+
+-- Due date range filter combined with the same keyset ordering
+CREATE INDEX IF NOT EXISTS idx_targets_due_to_created_at_id
+    ON public.targets (due_to, created_at DESC, id DESC);
+
+-- Class / school filters resolve targets through target_students -> students -> classes
+CREATE INDEX IF NOT EXISTS idx_students_class_id_id
+    ON public.students (class_id, id);
+
+CREATE INDEX IF NOT EXISTS idx_classes_school_id_id
+    ON public.classes (school_id, id);
@@ -0,0 +1,96 @@
+-- liquibase formatted sql
+
+-- changeset adrian:014-sequence-ids
+-- Hibernate allocates ids from these sequences in blocks of 50 (pooled-lo), which lets
+-- inserts be JDBC-batched. Columns switch from IDENTITY to a nextval default so raw SQL
+-- inserts draw from the same sequence and can never collide with a pooled block.
+
+CREATE SEQUENCE IF NOT EXISTS public.schools_seq INCREMENT BY 50;
+SELECT setval('public.schools_seq', COALESCE((SELECT max(id) FROM public.schools), 0) + 1, false);
+ALTER TABLE public.schools ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE public.schools ALTER COLUMN id SET DEFAULT nextval('public.schools_seq');
+ALTER SEQUENCE public.schools_seq OWNED BY public.schools.id;
+
+CREATE SEQUENCE IF NOT EXISTS public.classes_seq INCREMENT BY 50;
+SELECT setval('public.classes_seq', COALESCE((SELECT max(id) FROM public.classes), 0) + 1, false);
+ALTER TABLE public.classes ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE public.classes ALTER COLUMN id SET DEFAULT nextval('public.classes_seq');
+ALTER SEQUENCE public.classes_seq OWNED BY public.classes.id;
+
+CREATE SEQUENCE IF NOT EXISTS public.students_seq INCREMENT BY 50;
+SELECT setval('public.students_seq', COALESCE((SELECT max(id) FROM public.students), 0) + 1, false);
+ALTER TABLE public.students ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE public.students ALTER COLUMN id SET DEFAULT nextval('public.students_seq');
+ALTER SEQUENCE public.students_seq OWNED BY public.students.id;
+
+CREATE SEQUENCE IF NOT EXISTS public.users_seq INCREMENT BY 50;
+SELECT setval('public.users_seq', COALESCE((SELECT max(id) FROM public.users), 0) + 1, false);
+ALTER TABLE public.users ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE public.users ALTER COLUMN id SET DEFAULT nextval('public.users_seq');
+ALTER SEQUENCE public.users_seq OWNED BY public.users.id;
+
+CREATE SEQUENCE IF NOT EXISTS public.student_join_codes_seq INCREMENT BY 50;
+SELECT setval('public.student_join_codes_seq', COALESCE((SELECT max(id) FROM public.student_join_codes), 0) + 1, false);
+ALTER TABLE public.student_join_codes ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE public.student_join_codes ALTER COLUMN id SET DEFAULT nextval('public.student_join_codes_seq');
+ALTER SEQUENCE public.student_join_codes_seq OWNED BY public.student_join_codes.id;
+
+CREATE SEQUENCE IF NOT EXISTS public.targets_seq INCREMENT BY 50;
+SELECT setval('public.targets_seq', COALESCE((SELECT max(id) FROM public.targets), 0) + 1, false);
+ALTER TABLE public.targets ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE public.targets ALTER COLUMN id SET DEFAULT nextval('public.targets_seq');
+ALTER SEQUENCE public.targets_seq OWNED BY public.targets.id;
+
+CREATE SEQUENCE IF NOT EXISTS public.contributions_seq INCREMENT BY 50;
+SELECT setval('public.contributions_seq', COALESCE((SELECT max(id) FROM public.contributions), 0) + 1, false);
+ALTER TABLE public.contributions ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE public.contributions ALTER COLUMN id SET DEFAULT nextval('public.contributions_seq');
+ALTER SEQUENCE public.contributions_seq OWNED BY public.contributions.id;
+
+CREATE SEQUENCE IF NOT EXISTS public.payments_seq INCREMENT BY 50;
+SELECT setval('public.payments_seq', COALESCE((SELECT max(id) FROM public.payments), 0) + 1, false);
+ALTER TABLE public.payments ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE public.payments ALTER COLUMN id SET DEFAULT nextval('public.payments_seq');
+ALTER SEQUENCE public.payments_seq OWNED BY public.payments.id;
+
+CREATE SEQUENCE IF NOT EXISTS public.announcements_seq INCREMENT BY 50;
+SELECT setval('public.announcements_seq', COALESCE((SELECT max(id) FROM public.announcements), 0) + 1, false);
+ALTER TABLE public.announcements ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE public.announcements ALTER COLUMN id SET DEFAULT nextval('public.announcements_seq');
+ALTER SEQUENCE public.announcements_seq OWNED BY public.announcements.id;
+
+CREATE SEQUENCE IF NOT EXISTS public.notifications_seq INCREMENT BY 50;
+SELECT setval('public.notifications_seq', COALESCE((SELECT max(id) FROM public.notifications), 0) + 1, false);
+ALTER TABLE public.notifications ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE public.notifications ALTER COLUMN id SET DEFAULT nextval('public.notifications_seq');
+ALTER SEQUENCE public.notifications_seq OWNED BY public.notifications.id;
+
+CREATE SEQUENCE IF NOT EXISTS public.comments_seq INCREMENT BY 50;
+SELECT setval('public.comments_seq', COALESCE((SELECT max(id) FROM public.comments), 0) + 1, false);
+ALTER TABLE public.comments ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE public.comments ALTER COLUMN id SET DEFAULT nextval('public.comments_seq');
+ALTER SEQUENCE public.comments_seq OWNED BY public.comments.id;
+
+CREATE SEQUENCE IF NOT EXISTS public.comments_associations_seq INCREMENT BY 50;
+SELECT setval('public.comments_associations_seq', COALESCE((SELECT max(id) FROM public.comments_associations), 0) + 1, false);
+ALTER TABLE public.comments_associations ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE public.comments_associations ALTER COLUMN id SET DEFAULT nextval('public.comments_associations_seq');
+ALTER SEQUENCE public.comments_associations_seq OWNED BY public.comments_associations.id;
+
+CREATE SEQUENCE IF NOT EXISTS public.polls_questions_seq INCREMENT BY 50;
+SELECT setval('public.polls_questions_seq', COALESCE((SELECT max(id) FROM public.polls_questions), 0) + 1, false);
+ALTER TABLE public.polls_questions ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE public.polls_questions ALTER COLUMN id SET DEFAULT nextval('public.polls_questions_seq');
+ALTER SEQUENCE public.polls_questions_seq OWNED BY public.polls_questions.id;
+
+CREATE SEQUENCE IF NOT EXISTS public.polls_answers_seq INCREMENT BY 50;
+SELECT setval('public.polls_answers_seq', COALESCE((SELECT max(id) FROM public.polls_answers), 0) + 1, false);
+ALTER TABLE public.polls_answers ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE public.polls_answers ALTER COLUMN id SET DEFAULT nextval('public.polls_answers_seq');
+ALTER SEQUENCE public.polls_answers_seq OWNED BY public.polls_answers.id;
+
+CREATE SEQUENCE IF NOT EXISTS public.outbox_events_seq INCREMENT BY 50;
+SELECT setval('public.outbox_events_seq', COALESCE((SELECT max(id) FROM public.outbox_events), 0) + 1, false);
+ALTER TABLE public.outbox_events ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE public.outbox_events ALTER COLUMN id SET DEFAULT nextval('public.outbox_events_seq');
+ALTER SEQUENCE public.outbox_events_seq OWNED BY public.outbox_events.id;
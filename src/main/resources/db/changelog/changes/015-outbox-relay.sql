@@ -0,0 +1,21 @@
+-- liquibase formatted sql
+
+-- changeset adrian:015-outbox-relay
+-- Delivery bookkeeping for the outbox relay
+ALTER TABLE public.outbox_events
+    ADD COLUMN attempts integer NOT NULL DEFAULT 0,
+    ADD COLUMN last_error text,
+    ADD COLUMN next_attempt_at timestamp NOT NULL DEFAULT now();
+
+UPDATE public.outbox_events
+SET next_attempt_at = created_at;
+
+-- Claim queries only ever look at pending rows that are due, oldest first
+CREATE INDEX IF NOT EXISTS idx_outbox_pending_next_attempt
+    ON public.outbox_events (next_attempt_at, id)
+    WHERE status = 'PENDING';
+
+-- Purge of finished rows past retention
+CREATE INDEX IF NOT EXISTS idx_outbox_processed_at
+    ON public.outbox_events (processed_at)
+    WHERE status IN ('PROCESSED', 'UNHANDLED');
@@ -0,0 +1,10 @@
+-- liquibase formatted sql
+
+-- changeset adrian:016-announcements-keyset-indexes
+-- Keyset pagination of a user's announcement feed on (published_at, id), newest first
+CREATE INDEX IF NOT EXISTS idx_announcements_user_published_id
+    ON public.announcements (user_id, published_at DESC, id DESC);
+
+-- Same ordering for the read / unread filtered feeds
+CREATE INDEX IF NOT EXISTS idx_announcements_user_read_published_id
+    ON public.announcements (user_id, is_read, published_at DESC, id DESC);
@@ -0,0 +1,23 @@
+-- liquibase formatted sql
+
+-- changeset adrian:017-announcement-unread-counters
+-- Maintained per-user unread announcement count, so the unread badge is a primary key lookup
+CREATE TABLE IF NOT EXISTS public.announcement_unread_counters
+(
+    user_id      BIGINT PRIMARY KEY,
+    unread_count INTEGER                     NOT NULL DEFAULT 0,
+    updated_at   TIMESTAMP WITHOUT TIME ZONE NOT NULL DEFAULT now(),
+
+    CONSTRAINT fk_announcement_unread_counters_user
+        FOREIGN KEY (user_id)
+            REFERENCES public.users (id)
+            ON DELETE CASCADE
+);
+
+-- Seed counters from the announcements that exist today
+INSERT INTO public.announcement_unread_counters (user_id, unread_count)
+SELECT a.user_id, count(*)
+FROM public.announcements a
+WHERE a.is_read = false
+GROUP BY a.user_id
+ON CONFLICT (user_id) DO UPDATE SET unread_count = EXCLUDED.unread_count;
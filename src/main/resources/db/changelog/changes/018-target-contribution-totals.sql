@@ -0,0 +1,45 @@
+-- liquibase formatted sql
+
+-- changeset adrian:018-target-contribution-totals
+-- Amount paid so far by each assigned student, so crossing the fee is detected on the row itself
+ALTER TABLE public.target_students
+    ADD COLUMN IF NOT EXISTS paid_amount NUMERIC(38, 2) NOT NULL DEFAULT 0;
+
+-- Running per-target collection totals, maintained together with every contribution insert.
+-- Outstanding students are counted from target_students on read, since fees can be frozen again
+CREATE TABLE IF NOT EXISTS public.target_contribution_totals
+(
+    target_id          BIGINT PRIMARY KEY,
+    collected_gross    NUMERIC(38, 2)              NOT NULL DEFAULT 0,
+    net_to_target      NUMERIC(38, 2)              NOT NULL DEFAULT 0,
+    platform_profit    NUMERIC(38, 2)              NOT NULL DEFAULT 0,
+    contribution_count BIGINT                      NOT NULL DEFAULT 0,
+    contributor_count  INTEGER                     NOT NULL DEFAULT 0,
+    updated_at         TIMESTAMP WITHOUT TIME ZONE NOT NULL DEFAULT now(),
+
+    CONSTRAINT fk_target_contribution_totals_target
+        FOREIGN KEY (target_id)
+            REFERENCES public.targets (id)
+            ON DELETE CASCADE
+);
+
+-- Seed from the contributions that exist today
+UPDATE public.target_students ts
+SET paid_amount = p.paid
+FROM (SELECT c.target_id, c.student_id, sum(c.value) AS paid
+      FROM public.contributions c
+      GROUP BY c.target_id, c.student_id) p
+WHERE ts.target_id = p.target_id
+  AND ts.student_id = p.student_id;
+
+INSERT INTO public.target_contribution_totals
+    (target_id, collected_gross, net_to_target, platform_profit, contribution_count, contributor_count)
+SELECT c.target_id,
+       sum(c.value),
+       sum(c.net_to_target),
+       sum(c.platform_profit),
+       count(*),
+       count(DISTINCT c.student_id) FILTER (WHERE c.value > 0)
+FROM public.contributions c
+GROUP BY c.target_id
+ON CONFLICT (target_id) DO NOTHING;
@@ -0,0 +1,25 @@
+-- liquibase formatted sql
+
+-- changeset adrian:019-idempotency-keys
+-- Stored responses of requests sent with an Idempotency-Key header, replayed on retries
+CREATE SEQUENCE IF NOT EXISTS public.idempotency_keys_seq INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS public.idempotency_keys
+(
+    id              BIGINT PRIMARY KEY DEFAULT nextval('public.idempotency_keys_seq'),
+    scope           VARCHAR(64)                 NOT NULL,
+    idempotency_key VARCHAR(255)                NOT NULL,
+    request_hash    VARCHAR(64)                 NOT NULL,
+    response_body   TEXT,
+    created_at      TIMESTAMP WITHOUT TIME ZONE NOT NULL DEFAULT now(),
+    expires_at      TIMESTAMP WITHOUT TIME ZONE NOT NULL
+);
+
+ALTER SEQUENCE public.idempotency_keys_seq OWNED BY public.idempotency_keys.id;
+
+CREATE UNIQUE INDEX IF NOT EXISTS uq_idempotency_keys_scope_key
+    ON public.idempotency_keys (scope, idempotency_key);
+
+-- TTL purge
+CREATE INDEX IF NOT EXISTS idx_idempotency_keys_expires_at
+    ON public.idempotency_keys (expires_at);
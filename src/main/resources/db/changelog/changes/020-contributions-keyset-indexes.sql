@@ -0,0 +1,9 @@
+-- liquibase formatted sql
+
+-- changeset adrian:020-contributions-keyset-indexes
+-- Keyset pages of contributions per target and per student, newest first
+CREATE INDEX IF NOT EXISTS idx_contributions_target_created
+    ON public.contributions (target_id, created_at DESC, id DESC);
+
+CREATE INDEX IF NOT EXISTS idx_contributions_student_created
+    ON public.contributions (student_id, created_at DESC, id DESC);
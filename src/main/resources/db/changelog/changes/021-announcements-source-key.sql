@@ -0,0 +1,17 @@
+-- liquibase formatted sql
+
+-- changeset adrian:021-announcements-source-key
+-- Announcements generated from a target remember their source and kind, so repeated fan-outs
+-- for the same target skip parents that were already announced to
+ALTER TABLE public.announcements
+    ADD COLUMN IF NOT EXISTS source_target_id BIGINT,
+    ADD COLUMN IF NOT EXISTS kind VARCHAR(64);
+
+ALTER TABLE public.announcements
+    ADD CONSTRAINT fk_announcements_source_target
+        FOREIGN KEY (source_target_id)
+            REFERENCES public.targets (id)
+            ON DELETE SET NULL;
+
+CREATE UNIQUE INDEX IF NOT EXISTS uq_announcements_source_user_kind
+    ON public.announcements (source_target_id, user_id, kind);
@@ -9,7 +9,9 @@ import org.springframework.test.context.TestPropertySource;
     "spring.datasource.url=jdbc:h2:mem:testdb",
     "spring.datasource.driver-class-name=org.h2.Driver",
     "spring.jpa.hibernate.ddl-auto=create-drop",
-    "spring.liquibase.enabled=false"
+    "spring.liquibase.enabled=false",
+    "rada.outbox.relay.enabled=false",
+    "rada.join-codes.pool-size=0"
 })
 class RadaApplicationTests {
 
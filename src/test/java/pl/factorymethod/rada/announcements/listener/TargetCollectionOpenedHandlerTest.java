@@ -0,0 +1,54 @@
+package pl.factorymethod.rada.announcements.listener;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import pl.factorymethod.rada.announcements.service.AnnouncementFanOutService;
+import pl.factorymethod.rada.outbox.OutboxEvent;
+import pl.factorymethod.rada.targets.event.TargetContributionCollectionOpenedEvent;
+
+class TargetCollectionOpenedHandlerTest {
+
+    private AnnouncementFanOutService fanOutService;
+    private ObjectMapper objectMapper;
+    private TargetCollectionOpenedHandler handler;
+
+    @BeforeEach
+    void setUp() {
+        fanOutService = mock(AnnouncementFanOutService.class);
+        objectMapper = mock(ObjectMapper.class);
+        handler = new TargetCollectionOpenedHandler(fanOutService, objectMapper);
+    }
+
+    @Test
+    void supportsOnlyCollectionOpenedEvents() {
+        assertThat(handler.supports(TargetContributionCollectionOpenedEvent.class.getName())).isTrue();
+        assertThat(handler.supports("pl.factorymethod.rada.SomeEvent")).isFalse();
+    }
+
+    @Test
+    void fansOutRecordedEvent() throws Exception {
+        TargetContributionCollectionOpenedEvent event = new TargetContributionCollectionOpenedEvent(
+                UUID.randomUUID(), LocalDateTime.of(2025, 3, 1, 10, 0), BigDecimal.valueOf(25), 4);
+        OutboxEvent outboxEvent = new OutboxEvent();
+        outboxEvent.setEventType(TargetContributionCollectionOpenedEvent.class.getName());
+        outboxEvent.setPayload("{\"targetPublicId\":\"" + event.targetPublicId() + "\"}");
+        when(objectMapper.readValue(outboxEvent.getPayload(), TargetContributionCollectionOpenedEvent.class))
+                .thenReturn(event);
+
+        handler.handle(outboxEvent);
+
+        verify(fanOutService).announceCollectionOpened(event);
+    }
+}
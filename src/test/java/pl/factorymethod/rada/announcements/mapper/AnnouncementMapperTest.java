@@ -3,12 +3,14 @@ package pl.factorymethod.rada.announcements.mapper;
 import static org.assertj.core.api.Assertions.assertThat;
 
 import java.time.LocalDateTime;
+import java.util.UUID;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
 import pl.factorymethod.rada.announcements.dto.AnnouncementDto;
+import pl.factorymethod.rada.announcements.repository.AnnouncementView;
 import pl.factorymethod.rada.model.Announcement;
 import pl.factorymethod.rada.model.User;
 
@@ -73,7 +75,7 @@ class AnnouncementMapperTest {
     @DisplayName("Should return null when announcement is null")
     void shouldReturnNullWhenAnnouncementIsNull() {
         // When
-        AnnouncementDto dto = announcementMapper.toDto(null);
+        AnnouncementDto dto = announcementMapper.toDto((Announcement) null);
 
         // Then
         assertThat(dto).isNull();
@@ -128,4 +130,44 @@ class AnnouncementMapperTest {
         assertThat(dto.getCreatedAt()).isEqualTo(expectedCreatedAt);
         assertThat(dto.getPublishedAt()).isEqualTo(expectedPublishedAt);
     }
+
+    @Test
+    @DisplayName("Should map flat announcement view to DTO without touching the user entity")
+    void shouldMapAnnouncementViewToDto() {
+        // Given
+        UUID announcementId = UUID.randomUUID();
+        UUID userId = UUID.randomUUID();
+        AnnouncementView view = new AnnouncementView() {
+            public Long getId() { return 20L; }
+            public UUID getPublicId() { return announcementId; }
+            public UUID getUserPublicId() { return userId; }
+            public String getUserName() { return "Test User"; }
+            public boolean getRead() { return true; }
+            public LocalDateTime getCreatedAt() { return LocalDateTime.of(2024, 1, 1, 10, 0); }
+            public String getDescription() { return "Test Description"; }
+            public String getSummary() { return "Test Summary"; }
+            public LocalDateTime getPublishedAt() { return LocalDateTime.of(2024, 1, 1, 12, 0); }
+        };
+
+        // When
+        AnnouncementDto dto = announcementMapper.toDto(view);
+
+        // Then
+        assertThat(dto.getId()).isEqualTo(announcementId.toString());
+        assertThat(dto.getUserId()).isEqualTo(userId.toString());
+        assertThat(dto.getUserName()).isEqualTo("Test User");
+        assertThat(dto.isRead()).isTrue();
+        assertThat(dto.getSummary()).isEqualTo("Test Summary");
+        assertThat(dto.getPublishedAt()).isEqualTo(LocalDateTime.of(2024, 1, 1, 12, 0));
+    }
+
+    @Test
+    @DisplayName("Should return null when announcement view is null")
+    void shouldReturnNullWhenAnnouncementViewIsNull() {
+        // When
+        AnnouncementDto dto = announcementMapper.toDto((AnnouncementView) null);
+
+        // Then
+        assertThat(dto).isNull();
+    }
 }
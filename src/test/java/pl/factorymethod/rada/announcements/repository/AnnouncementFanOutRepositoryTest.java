@@ -0,0 +1,89 @@
+package pl.factorymethod.rada.announcements.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDateTime;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import pl.factorymethod.rada.support.PostgresIntegrationTest;
+
+class AnnouncementFanOutRepositoryTest extends PostgresIntegrationTest {
+
+    private static final String KIND = "COLLECTION_OPENED";
+
+    @Autowired
+    private AnnouncementRepository announcementRepository;
+
+    @Test
+    void pagesRecipientsByUserIdAndAnnouncesEachParentOnce() {
+        long classId = insertClass(insertSchool());
+        long targetId = insertTarget();
+        long[] parents = new long[3];
+        for (int i = 0; i < parents.length; i++) {
+            long studentId = insertStudent(classId, String.valueOf(i + 1), "Student" + i);
+            assignStudent(targetId, studentId, null);
+            parents[i] = insertUser();
+            linkParent(studentId, parents[i]);
+        }
+        // A parent of two children in the target gets one announcement
+        long sibling = insertStudent(classId, "4", "Sibling");
+        assignStudent(targetId, sibling, null);
+        linkParent(sibling, parents[0]);
+
+        AnnouncementFanOutChunk first = insert(targetId, 0);
+        AnnouncementFanOutChunk second = insert(targetId, first.getLastUserId());
+        AnnouncementFanOutChunk third = insert(targetId, second.getLastUserId());
+
+        assertThat(first.getRecipientCount()).isEqualTo(2);
+        assertThat(first.getInsertedCount()).isEqualTo(2);
+        assertThat(first.getLastUserId()).isEqualTo(parents[1]);
+        assertThat(first.getInsertedUserPublicIds())
+                .containsExactlyInAnyOrder(publicIdOf("users", parents[0]), publicIdOf("users", parents[1]));
+        assertThat(second.getRecipientCount()).isEqualTo(1);
+        assertThat(second.getLastUserId()).isEqualTo(parents[2]);
+        assertThat(third.getLastUserId()).isNull();
+        assertThat(third.getRecipientCount()).isZero();
+        assertThat(countAnnouncements(targetId)).isEqualTo(3);
+        assertThat(jdbc.queryForObject(
+                "SELECT unread_count FROM announcement_unread_counters WHERE user_id = ?", Integer.class, parents[0]))
+                .isEqualTo(1);
+    }
+
+    @Test
+    void skipsParentsAlreadyAnnouncedToForTheTarget() {
+        long classId = insertClass(insertSchool());
+        long targetId = insertTarget();
+        long student = insertStudent(classId, "1", "First");
+        assignStudent(targetId, student, null);
+        long parent = insertUser();
+        linkParent(student, parent);
+        insert(targetId, 0);
+
+        // More students are assigned and the collection is announced again
+        long newStudent = insertStudent(classId, "2", "Second");
+        assignStudent(targetId, newStudent, null);
+        long newParent = insertUser();
+        linkParent(newStudent, newParent);
+        AnnouncementFanOutChunk again = insert(targetId, 0);
+
+        assertThat(again.getRecipientCount()).isEqualTo(2);
+        assertThat(again.getInsertedCount()).isEqualTo(1);
+        assertThat(again.getInsertedUserPublicIds()).containsExactly(publicIdOf("users", newParent));
+        assertThat(countAnnouncements(targetId)).isEqualTo(2);
+        assertThat(jdbc.queryForObject(
+                "SELECT unread_count FROM announcement_unread_counters WHERE user_id = ?", Integer.class, parent))
+                .isEqualTo(1);
+    }
+
+    private AnnouncementFanOutChunk insert(long targetId, long afterUserId) {
+        return announcementRepository.insertForTargetParents(targetId, KIND, afterUserId, 2, "Summary",
+                "Description", LocalDateTime.now());
+    }
+
+    private long countAnnouncements(long targetId) {
+        return jdbc.queryForObject("SELECT count(*) FROM announcements WHERE source_target_id = ?", Long.class,
+                targetId);
+    }
+}
@@ -0,0 +1,95 @@
+package pl.factorymethod.rada.announcements.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import pl.factorymethod.rada.support.PostgresIntegrationTest;
+
+class AnnouncementUnreadCounterRepositoryTest extends PostgresIntegrationTest {
+
+    @Autowired
+    private AnnouncementRepository announcementRepository;
+
+    @Test
+    void countsAndUncountsAnnouncementsOfActiveUsers() {
+        long targetId = insertTarget();
+        long parent = parentOf(targetId, insertUser());
+        announceTwice(targetId);
+        UUID parentPublicId = publicIdOf("users", parent);
+
+        assertThat(announcementRepository.findUnreadCountByUserId(parentPublicId)).contains(2);
+
+        announcementRepository.markReadByPublicId(firstAnnouncementOf(parent));
+        assertThat(announcementRepository.findUnreadCountByUserId(parentPublicId)).contains(1);
+
+        announcementRepository.markAllReadByUserId(parent, null);
+        assertThat(announcementRepository.findUnreadCountByUserId(parentPublicId)).contains(0);
+    }
+
+    @Test
+    void countsAnnouncementsReceivedWhileDisabledOnceTheAccountIsRestored() {
+        long targetId = insertTarget();
+        long parent = parentOf(targetId, insertUser(false, false, false));
+        UUID parentPublicId = publicIdOf("users", parent);
+
+        announceTwice(targetId);
+        assertThat(announcementRepository.findUnreadCountByUserId(parentPublicId)).contains(0);
+
+        jdbc.update("UPDATE users SET enabled = true WHERE id = ?", parent);
+        assertThat(announcementRepository.findUnreadCountByUserId(parentPublicId)).contains(2);
+
+        announcementRepository.markReadByPublicId(firstAnnouncementOf(parent));
+        assertThat(announcementRepository.findUnreadCountByUserId(parentPublicId)).contains(1);
+        assertThat(counterOf(parent)).isEqualTo(unreadRowsOf(parent));
+    }
+
+    @Test
+    void hidesCounterOfExpiredUserWithoutLosingIt() {
+        long targetId = insertTarget();
+        long parent = parentOf(targetId, insertUser());
+        UUID parentPublicId = publicIdOf("users", parent);
+        announceTwice(targetId);
+
+        jdbc.update("UPDATE users SET expired = true WHERE id = ?", parent);
+        assertThat(announcementRepository.findUnreadCountByUserId(parentPublicId)).contains(0);
+        assertThat(counterOf(parent)).isEqualTo(2);
+
+        jdbc.update("UPDATE users SET expired = false WHERE id = ?", parent);
+        assertThat(announcementRepository.findUnreadCountByUserId(parentPublicId)).contains(2);
+    }
+
+    private long parentOf(long targetId, long userId) {
+        long studentId = insertStudent(insertClass(insertSchool()), "1", "Student");
+        assignStudent(targetId, studentId, null);
+        linkParent(studentId, userId);
+        return userId;
+    }
+
+    private void announceTwice(long targetId) {
+        announcementRepository.insertForTargetParents(targetId, "FIRST", 0, 100, "Summary", "Description",
+                LocalDateTime.now());
+        announcementRepository.insertForTargetParents(targetId, "SECOND", 0, 100, "Summary", "Description",
+                LocalDateTime.now());
+    }
+
+    private UUID firstAnnouncementOf(long userId) {
+        return jdbc.queryForObject("SELECT public_id FROM announcements WHERE user_id = ? ORDER BY id LIMIT 1",
+                UUID.class, userId);
+    }
+
+    private int counterOf(long userId) {
+        return jdbc.queryForObject("""
+                SELECT COALESCE((SELECT unread_count FROM announcement_unread_counters WHERE user_id = ?), 0)
+                """, Integer.class, userId);
+    }
+
+    private int unreadRowsOf(long userId) {
+        return jdbc.queryForObject("SELECT count(*) FROM announcements WHERE user_id = ? AND is_read = false",
+                Integer.class, userId);
+    }
+}
@@ -0,0 +1,116 @@
+package pl.factorymethod.rada.announcements.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import pl.factorymethod.rada.announcements.event.AnnouncementsPublishedEvent;
+import pl.factorymethod.rada.announcements.repository.AnnouncementFanOutChunk;
+import pl.factorymethod.rada.announcements.repository.AnnouncementRepository;
+import pl.factorymethod.rada.model.Target;
+import pl.factorymethod.rada.shared.events.EventPublisher;
+import pl.factorymethod.rada.targets.event.TargetContributionCollectionOpenedEvent;
+import pl.factorymethod.rada.targets.repository.TargetRepository;
+
+class AnnouncementFanOutServiceTest {
+
+    private static final int CHUNK_SIZE = 2;
+    private static final UUID FIRST_PARENT = UUID.randomUUID();
+    private static final UUID SECOND_PARENT = UUID.randomUUID();
+
+    private AnnouncementRepository announcementRepository;
+    private TargetRepository targetRepository;
+    private EventPublisher eventPublisher;
+    private AnnouncementFanOutService service;
+    private Target target;
+    private TargetContributionCollectionOpenedEvent event;
+
+    @BeforeEach
+    void setUp() {
+        announcementRepository = mock(AnnouncementRepository.class);
+        targetRepository = mock(TargetRepository.class);
+        eventPublisher = mock(EventPublisher.class);
+        service = new AnnouncementFanOutService(announcementRepository, targetRepository, eventPublisher, CHUNK_SIZE);
+
+        target = new Target();
+        target.setId(7L);
+        target.setPublicId(UUID.randomUUID());
+        target.setDueTo(LocalDate.of(2025, 12, 1));
+        event = new TargetContributionCollectionOpenedEvent(target.getPublicId(), LocalDateTime.now(), BigDecimal.TEN, 3);
+        when(targetRepository.findByPublicId(target.getPublicId())).thenReturn(Optional.of(target));
+    }
+
+    @Test
+    void continuesAfterFullChunkEvenWhenParentsWereSkipped() {
+        // First chunk is full but one parent was already announced to
+        when(announcementRepository.insertForTargetParents(eq(7L), anyString(), eq(0L), eq(CHUNK_SIZE), any(), any(), any()))
+                .thenReturn(chunk(11L, 2, FIRST_PARENT));
+        when(announcementRepository.insertForTargetParents(eq(7L), anyString(), eq(11L), eq(CHUNK_SIZE), any(), any(), any()))
+                .thenReturn(chunk(12L, 1, SECOND_PARENT));
+
+        int total = service.announceCollectionOpened(event);
+
+        assertThat(total).isEqualTo(2);
+        verify(announcementRepository, times(2))
+                .insertForTargetParents(eq(7L), eq(AnnouncementFanOutService.COLLECTION_OPENED_KIND), anyLong(), anyInt(),
+                        any(), any(), any());
+        ArgumentCaptor<Object> eventCaptor = ArgumentCaptor.forClass(Object.class);
+        verify(eventPublisher, times(2)).publish(eventCaptor.capture());
+        assertThat(eventCaptor.getAllValues())
+                .extracting(published -> ((AnnouncementsPublishedEvent) published).recipientPublicIds())
+                .containsExactly(List.of(FIRST_PARENT), List.of(SECOND_PARENT));
+    }
+
+    @Test
+    void stopsWhenNoRecipientsAreLeft() {
+        when(announcementRepository.insertForTargetParents(eq(7L), anyString(), eq(0L), eq(CHUNK_SIZE), any(), any(), any()))
+                .thenReturn(chunk(11L, 2, FIRST_PARENT, SECOND_PARENT));
+        when(announcementRepository.insertForTargetParents(eq(7L), anyString(), eq(11L), eq(CHUNK_SIZE), any(), any(), any()))
+                .thenReturn(chunk(null, 0));
+
+        int total = service.announceCollectionOpened(event);
+
+        assertThat(total).isEqualTo(2);
+        verify(announcementRepository, times(2))
+                .insertForTargetParents(anyLong(), anyString(), anyLong(), anyInt(), any(), any(), any());
+    }
+
+    @Test
+    void publishesNothingWhenEveryParentWasAlreadyAnnouncedTo() {
+        when(announcementRepository.insertForTargetParents(eq(7L), anyString(), eq(0L), eq(CHUNK_SIZE), any(), any(), any()))
+                .thenReturn(chunk(11L, 1));
+
+        int total = service.announceCollectionOpened(event);
+
+        assertThat(total).isZero();
+        verify(eventPublisher, never()).publish(any());
+    }
+
+    private static AnnouncementFanOutChunk chunk(Long lastUserId, long recipientCount, UUID... inserted) {
+        AnnouncementFanOutChunk chunk = mock(AnnouncementFanOutChunk.class);
+        when(chunk.getLastUserId()).thenReturn(lastUserId);
+        when(chunk.getRecipientCount()).thenReturn(recipientCount);
+        when(chunk.getInsertedCount()).thenReturn((long) inserted.length);
+        when(chunk.getInsertedUserPublicIds()).thenReturn(inserted.length > 0 ? inserted : null);
+        return chunk;
+    }
+}
@@ -0,0 +1,94 @@
+package pl.factorymethod.rada.announcements.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.web.server.ResponseStatusException;
+
+import pl.factorymethod.rada.announcements.repository.AnnouncementRepository;
+import pl.factorymethod.rada.announcements.repository.AnnouncementView;
+import pl.factorymethod.rada.model.User;
+import pl.factorymethod.rada.shared.identity.PublicIdResolver;
+
+class AnnouncementServiceTest {
+
+    @Mock
+    private AnnouncementRepository announcementRepository;
+    @Mock
+    private PublicIdResolver publicIdResolver;
+
+    @InjectMocks
+    private AnnouncementService announcementService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    void marksReadWithConditionalUpdateInsteadOfLoadingEntity() {
+        UUID announcementId = UUID.randomUUID();
+        AnnouncementView view = mock(AnnouncementView.class);
+        when(announcementRepository.markReadByPublicId(announcementId)).thenReturn(1);
+        when(announcementRepository.findViewByPublicId(announcementId)).thenReturn(Optional.of(view));
+
+        AnnouncementView result = announcementService.markAsRead(announcementId.toString());
+
+        assertThat(result).isSameAs(view);
+        verify(announcementRepository).markReadByPublicId(announcementId);
+        verify(announcementRepository, never()).findByPublicId(announcementId);
+    }
+
+    @Test
+    void returnsMaintainedUnreadCount() {
+        UUID userId = UUID.randomUUID();
+        when(announcementRepository.findUnreadCountByUserId(userId)).thenReturn(Optional.of(7));
+
+        assertThat(announcementService.getUnreadCount(userId.toString())).isEqualTo(7);
+    }
+
+    @Test
+    void rejectsUnreadCountForUnknownUser() {
+        UUID userId = UUID.randomUUID();
+        when(announcementRepository.findUnreadCountByUserId(userId)).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> announcementService.getUnreadCount(userId.toString()))
+                .isInstanceOf(ResponseStatusException.class);
+    }
+
+    @Test
+    void marksAllReadUpToWatermarkWithSingleUpdate() {
+        UUID userId = UUID.randomUUID();
+        LocalDateTime upTo = LocalDateTime.of(2025, 1, 6, 8, 0);
+        when(publicIdResolver.findId(User.class, userId)).thenReturn(Optional.of(5L));
+        when(announcementRepository.markAllReadByUserId(5L, upTo)).thenReturn(42);
+
+        assertThat(announcementService.markAllAsRead(userId.toString(), upTo)).isEqualTo(42);
+        verify(announcementRepository, never()).markReadByPublicId(any());
+    }
+
+    @Test
+    void rejectsMarkAllReadForUnknownUser() {
+        UUID userId = UUID.randomUUID();
+        when(publicIdResolver.findId(User.class, userId)).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> announcementService.markAllAsRead(userId.toString(), null))
+                .isInstanceOf(ResponseStatusException.class)
+                .hasMessageContaining("User not found");
+        verify(announcementRepository, never()).markAllReadByUserId(any(), any());
+    }
+}
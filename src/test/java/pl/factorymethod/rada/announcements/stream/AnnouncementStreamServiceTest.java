@@ -0,0 +1,176 @@
+package pl.factorymethod.rada.announcements.stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import pl.factorymethod.rada.announcements.event.AnnouncementsPublishedEvent;
+import pl.factorymethod.rada.announcements.mapper.AnnouncementMapper;
+import pl.factorymethod.rada.announcements.repository.AnnouncementRepository;
+import pl.factorymethod.rada.announcements.repository.AnnouncementView;
+import pl.factorymethod.rada.shared.pagination.KeysetCursor;
+
+class AnnouncementStreamServiceTest {
+
+    private AnnouncementRepository announcementRepository;
+    private AnnouncementStreamService streamService;
+    private RecordingEmitter emitter;
+
+    @BeforeEach
+    void setUp() {
+        announcementRepository = mock(AnnouncementRepository.class);
+        emitter = new RecordingEmitter();
+        streamService = new AnnouncementStreamService(announcementRepository, new AnnouncementMapper(), 60_000, 2) {
+            @Override
+            SseEmitter createEmitter(long timeoutMs) {
+                return emitter;
+            }
+        };
+    }
+
+    @AfterEach
+    void tearDown() {
+        streamService.destroy();
+    }
+
+    @Test
+    void replaysFromLastEventIdOnReconnect() {
+        UUID userId = UUID.randomUUID();
+        KeysetCursor lastSeen = new KeysetCursor(LocalDateTime.of(2025, 3, 1, 9, 0), 41L);
+        AnnouncementView missed = view(userId, 42L, LocalDateTime.of(2025, 3, 1, 10, 0));
+        when(announcementRepository.findNewerByUserId(eq(userId), eq(lastSeen.timestamp()), eq(41L), any(Pageable.class)))
+                .thenReturn(List.of(missed));
+
+        streamService.subscribe(userId.toString(), lastSeen.encode());
+
+        assertThat(streamService.connectionCount()).isEqualTo(1);
+        verify(announcementRepository).findNewerByUserId(eq(userId), eq(lastSeen.timestamp()), eq(41L), any(Pageable.class));
+        verify(announcementRepository, never()).findByUserId(any(), any(), any(), any());
+    }
+
+    @Test
+    void startsFromNewestAnnouncementWithoutLastEventId() {
+        UUID userId = UUID.randomUUID();
+        when(announcementRepository.findByUserId(eq(userId), eq(null), eq(null), any(Pageable.class)))
+                .thenReturn(new SliceImpl<>(List.of()));
+
+        streamService.subscribe(userId.toString(), null);
+
+        assertThat(streamService.connectionCount()).isEqualTo(1);
+        verify(announcementRepository, never()).findNewerByUserId(any(), any(), any(Long.class), any());
+    }
+
+    @Test
+    void sendsPublishedAnnouncementToSubscribedEmitter() throws InterruptedException {
+        UUID userId = UUID.randomUUID();
+        LocalDateTime publishedAt = LocalDateTime.of(2025, 3, 1, 10, 0);
+        when(announcementRepository.findByUserId(eq(userId), eq(null), eq(null), any(Pageable.class)))
+                .thenReturn(new SliceImpl<>(List.of()));
+        AnnouncementView published = view(userId, 42L, publishedAt);
+        when(announcementRepository.findPublishedSinceForUsers(List.of(userId), publishedAt, 3))
+                .thenReturn(List.of(published));
+        streamService.subscribe(userId.toString(), null);
+
+        emitter.expect(1);
+        streamService.onAnnouncementsPublished(new AnnouncementsPublishedEvent(UUID.randomUUID(), publishedAt, List.of(userId)));
+
+        assertThat(emitter.await()).isTrue();
+        assertThat(emitter.sent).singleElement().satisfies(event -> assertThat(event)
+                .contains("id:" + new KeysetCursor(publishedAt, 42L).encode())
+                .contains("event:" + AnnouncementStreamService.ANNOUNCEMENT_EVENT));
+    }
+
+    @Test
+    void asksForResyncWhenMorePublishedThanReplayLimit() throws InterruptedException {
+        UUID userId = UUID.randomUUID();
+        LocalDateTime publishedAt = LocalDateTime.of(2025, 3, 1, 10, 0);
+        when(announcementRepository.findByUserId(eq(userId), eq(null), eq(null), any(Pageable.class)))
+                .thenReturn(new SliceImpl<>(List.of()));
+        when(announcementRepository.findPublishedSinceForUsers(List.of(userId), publishedAt, 3))
+                .thenReturn(List.of(
+                        view(userId, 1L, publishedAt),
+                        view(userId, 2L, publishedAt),
+                        view(userId, 3L, publishedAt)));
+        streamService.subscribe(userId.toString(), null);
+
+        emitter.expect(3);
+        streamService.onAnnouncementsPublished(new AnnouncementsPublishedEvent(UUID.randomUUID(), publishedAt, List.of(userId)));
+
+        assertThat(emitter.await()).isTrue();
+        assertThat(emitter.sent).hasSize(3);
+        assertThat(emitter.sent.get(2)).contains("event:" + AnnouncementStreamService.RESYNC_EVENT);
+    }
+
+    @Test
+    void queriesOnlyRecipientsWithAnOpenStream() {
+        UUID connected = UUID.randomUUID();
+        UUID otherConnected = UUID.randomUUID();
+        LocalDateTime publishedAt = LocalDateTime.of(2025, 3, 1, 10, 0);
+        when(announcementRepository.findByUserId(any(), eq(null), eq(null), any(Pageable.class)))
+                .thenReturn(new SliceImpl<>(List.of()));
+        streamService.subscribe(connected.toString(), null);
+        streamService.subscribe(otherConnected.toString(), null);
+
+        streamService.onAnnouncementsPublished(
+                new AnnouncementsPublishedEvent(UUID.randomUUID(), publishedAt, List.of(connected, UUID.randomUUID())));
+        streamService.onAnnouncementsPublished(
+                new AnnouncementsPublishedEvent(UUID.randomUUID(), publishedAt, List.of(UUID.randomUUID())));
+
+        verify(announcementRepository).findPublishedSinceForUsers(List.of(connected), publishedAt, 3);
+        verify(announcementRepository, times(1)).findPublishedSinceForUsers(any(), any(), anyInt());
+    }
+
+    private static AnnouncementView view(UUID userId, long id, LocalDateTime publishedAt) {
+        AnnouncementView view = mock(AnnouncementView.class);
+        when(view.getId()).thenReturn(id);
+        when(view.getPublicId()).thenReturn(UUID.randomUUID());
+        when(view.getUserPublicId()).thenReturn(userId);
+        when(view.getPublishedAt()).thenReturn(publishedAt);
+        when(view.getCreatedAt()).thenReturn(publishedAt);
+        return view;
+    }
+
+    private static final class RecordingEmitter extends SseEmitter {
+
+        private final List<String> sent = new CopyOnWriteArrayList<>();
+        private volatile CountDownLatch latch = new CountDownLatch(0);
+
+        void expect(int events) {
+            latch = new CountDownLatch(events);
+        }
+
+        boolean await() throws InterruptedException {
+            return latch.await(5, TimeUnit.SECONDS);
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            sent.add(builder.build().stream()
+                    .map(part -> String.valueOf(part.getData()))
+                    .collect(Collectors.joining()));
+            latch.countDown();
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package pl.factorymethod.rada.auth.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import pl.factorymethod.rada.support.PostgresIntegrationTest;
+
+class UserProvisioningRepositoryTest extends PostgresIntegrationTest {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void syncReportsUnknownSubjectWithoutInserting() {
+        UUID subject = UUID.randomUUID();
+
+        assertThat(userRepository.syncProvisionedUser(subject, "anna@example.com", "Anna")).isFalse();
+        assertThat(userRepository.existsByPublicId(subject)).isFalse();
+    }
+
+    @Test
+    void syncUpdatesClaimsOfExistingSubjectAndKeepsItsDek() {
+        long userId = insertUser();
+        UUID subject = publicIdOf("users", userId);
+        byte[] dek = {1, 2, 3};
+        jdbc.update("UPDATE users SET dek = ? WHERE id = ?", dek, userId);
+
+        assertThat(userRepository.syncProvisionedUser(subject, "anna@example.com", "Anna Nowak")).isTrue();
+
+        assertThat(jdbc.queryForObject("SELECT name FROM users WHERE id = ?", String.class, userId))
+                .isEqualTo("Anna Nowak");
+        assertThat(jdbc.queryForObject("SELECT dek FROM users WHERE id = ?", byte[].class, userId)).isEqualTo(dek);
+    }
+}
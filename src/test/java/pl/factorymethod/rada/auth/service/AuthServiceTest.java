@@ -0,0 +1,93 @@
+package pl.factorymethod.rada.auth.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import pl.factorymethod.rada.auth.dto.LoginResponse;
+import pl.factorymethod.rada.auth.repository.UserRepository;
+import pl.factorymethod.rada.users.encryption.DekGenerator;
+
+class AuthServiceTest {
+
+    private UserRepository userRepository;
+    private DekGenerator dekGenerator;
+    private AuthService authService;
+
+    @BeforeEach
+    void setUp() {
+        userRepository = mock(UserRepository.class);
+        dekGenerator = spy(new DekGenerator(32));
+        authService = new AuthService(
+                userRepository,
+                dekGenerator,
+                new StaticListableBeanFactory().getBeanProvider(MeterRegistry.class),
+                100,
+                Duration.ofMinutes(10));
+    }
+
+    @Test
+    void upsertsOnceForRepeatedRequestsWithSameClaims() {
+        UUID subject = UUID.randomUUID();
+
+        LoginResponse first = authService.provisionUser(token(subject, "anna@example.com", "Anna"));
+        authService.provisionUser(token(subject, "anna@example.com", "Anna"));
+
+        assertThat(first.getUserId()).isEqualTo(subject.toString());
+        verify(userRepository, times(1))
+                .upsertProvisionedUser(eq(subject), eq("anna@example.com"), eq("Anna"), any());
+    }
+
+    @Test
+    void syncsAgainWhenClaimsChange() {
+        UUID subject = UUID.randomUUID();
+
+        authService.provisionUser(token(subject, "anna@example.com", "Anna"));
+        when(userRepository.syncProvisionedUser(subject, "anna@example.com", "Anna Nowak")).thenReturn(true);
+        authService.provisionUser(token(subject, "anna@example.com", "Anna Nowak"));
+
+        verify(userRepository).syncProvisionedUser(subject, "anna@example.com", "Anna Nowak");
+        verify(userRepository, never()).upsertProvisionedUser(eq(subject), eq("anna@example.com"), eq("Anna Nowak"), any());
+    }
+
+    @Test
+    void generatesDekOnlyForUsersMissingFromTheDatabase() {
+        UUID existing = UUID.randomUUID();
+        when(userRepository.syncProvisionedUser(existing, "jan@example.com", "Jan")).thenReturn(true);
+
+        authService.provisionUser(token(existing, "jan@example.com", "Jan"));
+        verify(dekGenerator, never()).generateDek();
+
+        authService.provisionUser(token(UUID.randomUUID(), "ewa@example.com", "Ewa"));
+        verify(dekGenerator, times(1)).generateDek();
+    }
+
+    private static JwtAuthenticationToken token(UUID subject, String email, String name) {
+        Jwt jwt = Jwt.withTokenValue("token")
+                .header("alg", "RS256")
+                .subject(subject.toString())
+                .claim("email", email)
+                .claim("name", name)
+                .issuedAt(Instant.now())
+                .expiresAt(Instant.now().plusSeconds(300))
+                .build();
+        return new JwtAuthenticationToken(jwt);
+    }
+}
@@ -0,0 +1,70 @@
+package pl.factorymethod.rada.classes;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import pl.factorymethod.rada.classes.dto.MoveStudentsRequest;
+import pl.factorymethod.rada.support.PostgresIntegrationTest;
+
+class SchoolClassMoveStudentsTest extends PostgresIntegrationTest {
+
+    @Autowired
+    private SchoolClassService schoolClassService;
+
+    @Test
+    void rollsBackWholeMoveWhenSomeStudentsAreNotInSourceClass() {
+        long schoolId = insertSchool();
+        long sourceClassId = insertClass(schoolId);
+        long targetClassId = insertClass(schoolId);
+        long student = insertStudent(sourceClassId, "1", "Adams");
+        long otherClassStudent = insertStudent(targetClassId, "1", "Brown");
+
+        assertThatThrownBy(() -> schoolClassService.moveStudents(
+                publicIdOf("classes", sourceClassId).toString(),
+                MoveStudentsRequest.builder()
+                        .targetClassId(publicIdOf("classes", targetClassId).toString())
+                        .studentIds(List.of(
+                                publicIdOf("students", student).toString(),
+                                publicIdOf("students", otherClassStudent).toString(),
+                                UUID.randomUUID().toString()))
+                        .build()))
+                .hasMessageContaining("Some students not found");
+
+        assertThat(classOf(student)).isEqualTo(sourceClassId);
+        assertThat(classOf(otherClassStudent)).isEqualTo(targetClassId);
+        assertThat(jdbc.queryForObject("SELECT count(*) FROM outbox_events", Long.class)).isZero();
+    }
+
+    @Test
+    void movesWholeClassAndRenumbersTarget() {
+        long schoolId = insertSchool();
+        long sourceClassId = insertClass(schoolId);
+        long targetClassId = insertClass(schoolId);
+        long adams = insertStudent(sourceClassId, "1", "Adams");
+        long clark = insertStudent(sourceClassId, "2", "Clark");
+        long brown = insertStudent(targetClassId, "1", "Brown");
+
+        schoolClassService.moveStudents(
+                publicIdOf("classes", sourceClassId).toString(),
+                MoveStudentsRequest.builder()
+                        .targetClassId(publicIdOf("classes", targetClassId).toString())
+                        .wholeClass(true)
+                        .build());
+
+        assertThat(jdbc.queryForList("SELECT last_name FROM students WHERE class_id = ? ORDER BY number",
+                String.class, targetClassId)).containsExactly("Adams", "Brown", "Clark");
+        assertThat(classOf(adams)).isEqualTo(targetClassId);
+        assertThat(classOf(clark)).isEqualTo(targetClassId);
+        assertThat(classOf(brown)).isEqualTo(targetClassId);
+    }
+
+    private long classOf(long studentId) {
+        return jdbc.queryForObject("SELECT class_id FROM students WHERE id = ?", Long.class, studentId);
+    }
+}
@@ -0,0 +1,260 @@
+package pl.factorymethod.rada.classes;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import pl.factorymethod.rada.classes.dto.CreateClassStudentsRequest;
+import pl.factorymethod.rada.classes.dto.CreateStudentRequest;
+import pl.factorymethod.rada.classes.dto.MoveStudentRequest;
+import pl.factorymethod.rada.classes.dto.MoveStudentsRequest;
+import pl.factorymethod.rada.classes.dto.MoveStudentsResponse;
+import pl.factorymethod.rada.classes.event.StudentAddedToClassEvent;
+import pl.factorymethod.rada.classes.event.StudentMovedToClassEvent;
+import pl.factorymethod.rada.classes.event.StudentsMovedToClassEvent;
+import pl.factorymethod.rada.classes.event.StudentsRenumberedEvent;
+import pl.factorymethod.rada.classes.repository.SchoolClassRepository;
+import pl.factorymethod.rada.model.SchoolClass;
+import pl.factorymethod.rada.model.Student;
+import pl.factorymethod.rada.shared.events.EventPublisher;
+import pl.factorymethod.rada.shared.identity.PublicIdResolver;
+import pl.factorymethod.rada.targets.repository.MovedStudent;
+import pl.factorymethod.rada.targets.repository.StudentRenumbering;
+import pl.factorymethod.rada.targets.repository.StudentRepository;
+
+class SchoolClassServiceTest {
+
+    @Mock
+    private SchoolClassRepository schoolClassRepository;
+    @Mock
+    private StudentRepository studentRepository;
+    @Mock
+    private EventPublisher eventPublisher;
+    @Mock
+    private PublicIdResolver publicIdResolver;
+
+    @InjectMocks
+    private SchoolClassService schoolClassService;
+
+    private SchoolClass sourceClass;
+    private SchoolClass targetClass;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        sourceClass = schoolClass(1L);
+        targetClass = schoolClass(2L);
+    }
+
+    @Test
+    void rejectsPartialMoveSoTheTransactionRollsBack() {
+        UUID found = UUID.randomUUID();
+        UUID missing = UUID.randomUUID();
+        when(studentRepository.moveStudents(1L, 2L, Set.of(found, missing)))
+                .thenReturn(List.of(moved(found, "1")));
+
+        assertThatThrownBy(() -> schoolClassService.moveStudents(sourceClass.getPublicId().toString(),
+                MoveStudentsRequest.builder()
+                        .targetClassId(targetClass.getPublicId().toString())
+                        .studentIds(List.of(found.toString(), missing.toString()))
+                        .build()))
+                .isInstanceOf(RuntimeException.class)
+                .hasMessageContaining("Some students not found");
+        verify(studentRepository, never()).renumberClass(any());
+        verify(eventPublisher, never()).publishAll(any());
+    }
+
+    @Test
+    void rejectsMoveWithinTheSameClass() {
+        String classId = sourceClass.getPublicId().toString();
+
+        assertThatThrownBy(() -> schoolClassService.moveStudents(classId, MoveStudentsRequest.builder()
+                .targetClassId(classId)
+                .studentIds(List.of(UUID.randomUUID().toString()))
+                .build()))
+                .isInstanceOf(RuntimeException.class)
+                .hasMessageContaining("Source and target class are the same");
+        verifyNoInteractions(studentRepository, eventPublisher);
+    }
+
+    @Test
+    void movesWholeClassWithoutStudentIds() {
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        when(studentRepository.moveAllStudents(1L, 2L)).thenReturn(List.of(moved(first, "1"), moved(second, "2")));
+        when(studentRepository.renumberClass(any())).thenReturn(List.of());
+
+        MoveStudentsResponse response = schoolClassService.moveStudents(sourceClass.getPublicId().toString(),
+                MoveStudentsRequest.builder()
+                        .targetClassId(targetClass.getPublicId().toString())
+                        .wholeClass(true)
+                        .build());
+
+        assertThat(response.getMovedCount()).isEqualTo(2);
+        verify(studentRepository, never()).moveStudents(any(), any(), any());
+        List<Object> events = publishedEvents();
+        assertThat(events).singleElement().isInstanceOfSatisfying(StudentsMovedToClassEvent.class, event ->
+                assertThat(event.moves()).extracting(StudentsMovedToClassEvent.Move::studentPublicId)
+                        .containsExactlyInAnyOrder(first, second));
+    }
+
+    @Test
+    void reportsMovedStudentsOnlyInTheMoveEvent() {
+        UUID movedStudent = UUID.randomUUID();
+        UUID stayingSourceStudent = UUID.randomUUID();
+        UUID existingTargetStudent = UUID.randomUUID();
+        when(studentRepository.moveStudents(1L, 2L, Set.of(movedStudent)))
+                .thenReturn(List.of(moved(movedStudent, "3")));
+        when(studentRepository.renumberClass(1L))
+                .thenReturn(List.of(renumbering(stayingSourceStudent, "4", "3")));
+        when(studentRepository.renumberClass(2L)).thenReturn(List.of(
+                renumbering(movedStudent, "3", "1"),
+                renumbering(existingTargetStudent, "1", "2")));
+
+        schoolClassService.moveStudents(sourceClass.getPublicId().toString(), MoveStudentsRequest.builder()
+                .targetClassId(targetClass.getPublicId().toString())
+                .studentIds(List.of(movedStudent.toString()))
+                .build());
+
+        List<Object> events = publishedEvents();
+        assertThat(events).hasSize(3);
+        StudentsMovedToClassEvent moveEvent = (StudentsMovedToClassEvent) events.get(0);
+        assertThat(moveEvent.moves()).containsExactly(new StudentsMovedToClassEvent.Move(movedStudent, "3", "1"));
+        assertThat(renumberedIn(events, sourceClass)).containsExactly(stayingSourceStudent);
+        assertThat(renumberedIn(events, targetClass)).containsExactly(existingTargetStudent);
+    }
+
+    @Test
+    void numbersAddedStudentsFromRenumberingAndFallsBackToAssignedNumber() {
+        UUID existingStudent = UUID.randomUUID();
+        AtomicReference<List<Student>> saved = new AtomicReference<>();
+        when(studentRepository.countBySchoolClass(sourceClass)).thenReturn(1L);
+        when(studentRepository.saveAll(any())).thenAnswer(invocation -> {
+            List<Student> students = invocation.getArgument(0);
+            saved.set(students);
+            return students;
+        });
+        // Adams sorts first and takes number 1 from Brown; Zed keeps the number it was given
+        when(studentRepository.renumberClass(1L)).thenAnswer(invocation -> List.of(
+                renumbering(saved.get().get(0).getPublicId(), "2", "1"),
+                renumbering(existingStudent, "1", "2")));
+
+        schoolClassService.addStudentsToClass(sourceClass.getPublicId().toString(), CreateClassStudentsRequest.builder()
+                .students(List.of(
+                        CreateStudentRequest.builder().firstName("Anna").lastName("Adams").build(),
+                        CreateStudentRequest.builder().firstName("Zoe").lastName("Zed").build()))
+                .build());
+
+        List<Object> events = publishedEvents();
+        assertThat(events).hasSize(3);
+        assertThat(events.subList(0, 2)).extracting(event -> ((StudentAddedToClassEvent) event).number())
+                .containsExactly("1", "3");
+        assertThat(renumberedIn(events, sourceClass)).containsExactly(existingStudent);
+    }
+
+    @Test
+    void reportsMovedStudentNumberFromTargetRenumbering() {
+        Student student = student(sourceClass, "3");
+        UUID stayingSourceStudent = UUID.randomUUID();
+        UUID existingTargetStudent = UUID.randomUUID();
+        when(studentRepository.renumberClass(1L)).thenReturn(List.of(renumbering(stayingSourceStudent, "4", "3")));
+        when(studentRepository.renumberClass(2L)).thenReturn(List.of(
+                renumbering(student.getPublicId(), "3", "1"),
+                renumbering(existingTargetStudent, "1", "2")));
+
+        schoolClassService.moveStudent(sourceClass.getPublicId().toString(), student.getPublicId().toString(),
+                MoveStudentRequest.builder().targetClassId(targetClass.getPublicId().toString()).build());
+
+        List<Object> events = publishedEvents();
+        assertThat(events.get(0)).isInstanceOfSatisfying(StudentMovedToClassEvent.class, event -> {
+            assertThat(event.oldNumber()).isEqualTo("3");
+            assertThat(event.newNumber()).isEqualTo("1");
+        });
+        assertThat(renumberedIn(events, sourceClass)).containsExactly(stayingSourceStudent);
+        assertThat(renumberedIn(events, targetClass)).containsExactly(existingTargetStudent);
+    }
+
+    @Test
+    void keepsMovedStudentNumberWhenTargetRenumberingLeavesItUnchanged() {
+        Student student = student(sourceClass, "2");
+        when(studentRepository.renumberClass(any())).thenReturn(List.of());
+
+        schoolClassService.moveStudent(sourceClass.getPublicId().toString(), student.getPublicId().toString(),
+                MoveStudentRequest.builder().targetClassId(targetClass.getPublicId().toString()).build());
+
+        List<Object> events = publishedEvents();
+        assertThat(events).singleElement().isInstanceOfSatisfying(StudentMovedToClassEvent.class, event -> {
+            assertThat(event.oldNumber()).isEqualTo("2");
+            assertThat(event.newNumber()).isEqualTo("2");
+        });
+    }
+
+    private List<Object> publishedEvents() {
+        ArgumentCaptor<Collection<?>> eventsCaptor = ArgumentCaptor.forClass(Collection.class);
+        verify(eventPublisher).publishAll(eventsCaptor.capture());
+        return new ArrayList<>(eventsCaptor.getValue());
+    }
+
+    private static List<UUID> renumberedIn(List<Object> events, SchoolClass schoolClass) {
+        return events.stream()
+                .filter(StudentsRenumberedEvent.class::isInstance)
+                .map(StudentsRenumberedEvent.class::cast)
+                .filter(event -> event.classPublicId().equals(schoolClass.getPublicId()))
+                .flatMap(event -> event.changes().stream())
+                .map(StudentsRenumberedEvent.NumberChange::studentPublicId)
+                .toList();
+    }
+
+    private SchoolClass schoolClass(Long id) {
+        SchoolClass schoolClass = new SchoolClass();
+        schoolClass.setId(id);
+        schoolClass.setPublicId(UUID.randomUUID());
+        when(schoolClassRepository.findByPublicId(schoolClass.getPublicId())).thenReturn(Optional.of(schoolClass));
+        return schoolClass;
+    }
+
+    private Student student(SchoolClass schoolClass, String number) {
+        Student student = new Student();
+        student.setId(10L);
+        student.setPublicId(UUID.randomUUID());
+        student.setSchoolClass(schoolClass);
+        student.setNumber(number);
+        when(studentRepository.findByPublicId(student.getPublicId())).thenReturn(Optional.of(student));
+        return student;
+    }
+
+    private static MovedStudent moved(UUID studentPublicId, String oldNumber) {
+        MovedStudent moved = mock(MovedStudent.class);
+        when(moved.getStudentPublicId()).thenReturn(studentPublicId);
+        when(moved.getOldNumber()).thenReturn(oldNumber);
+        return moved;
+    }
+
+    private static StudentRenumbering renumbering(UUID studentPublicId, String oldNumber, String newNumber) {
+        StudentRenumbering renumbering = mock(StudentRenumbering.class);
+        when(renumbering.getStudentPublicId()).thenReturn(studentPublicId);
+        when(renumbering.getOldNumber()).thenReturn(oldNumber);
+        when(renumbering.getNewNumber()).thenReturn(newNumber);
+        return renumbering;
+    }
+}
@@ -0,0 +1,160 @@
+package pl.factorymethod.rada.contributions;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+
+import pl.factorymethod.rada.contributions.dto.ContributionResponse;
+import pl.factorymethod.rada.contributions.dto.ContributionsSliceResponse;
+import pl.factorymethod.rada.contributions.dto.CreateContributionRequest;
+import pl.factorymethod.rada.contributions.repository.ContributionRepository;
+import pl.factorymethod.rada.contributions.repository.ContributionView;
+import pl.factorymethod.rada.model.Student;
+import pl.factorymethod.rada.model.Target;
+import pl.factorymethod.rada.shared.identity.PublicIdResolver;
+import pl.factorymethod.rada.shared.pagination.KeysetCursor;
+import pl.factorymethod.rada.targets.repository.TargetStudentRepository;
+
+class ContributionServiceTest {
+
+    @Mock
+    private ContributionRepository contributionRepository;
+    @Mock
+    private TargetStudentRepository targetStudentRepository;
+    @Mock
+    private PublicIdResolver publicIdResolver;
+
+    @InjectMocks
+    private ContributionService contributionService;
+
+    private final UUID targetPublicId = UUID.randomUUID();
+    private final UUID studentPublicId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    void insertsWithCalculatedCommissionsInOneStatement() {
+        when(contributionRepository.insertContribution(any(), eq(targetPublicId), eq(studentPublicId),
+                any(), any(), any(), any()))
+                .thenAnswer(invocation -> Optional.of(invocation.getArgument(0)));
+
+        UUID publicId = contributionService.createContribution(request());
+
+        ArgumentCaptor<UUID> publicIdCaptor = ArgumentCaptor.forClass(UUID.class);
+        ArgumentCaptor<BigDecimal> commissionCaptor = ArgumentCaptor.forClass(BigDecimal.class);
+        ArgumentCaptor<BigDecimal> operatorFeeCaptor = ArgumentCaptor.forClass(BigDecimal.class);
+        verify(contributionRepository).insertContribution(publicIdCaptor.capture(), eq(targetPublicId),
+                eq(studentPublicId), any(), commissionCaptor.capture(), operatorFeeCaptor.capture(), any());
+        assertThat(publicId).isEqualTo(publicIdCaptor.getValue());
+        assertThat(commissionCaptor.getValue()).isEqualByComparingTo("5.00");
+        assertThat(operatorFeeCaptor.getValue()).isEqualByComparingTo("1.00");
+        verifyNoInteractions(publicIdResolver, targetStudentRepository);
+    }
+
+    @Test
+    void explainsRejectedInsertWhenFeeIsNotFrozen() {
+        when(contributionRepository.insertContribution(any(), any(), any(), any(), any(), any(), any()))
+                .thenReturn(Optional.empty());
+        when(publicIdResolver.findId(Target.class, targetPublicId)).thenReturn(Optional.of(1L));
+        when(publicIdResolver.findId(Student.class, studentPublicId)).thenReturn(Optional.of(2L));
+        when(targetStudentRepository.existsById(any())).thenReturn(true);
+
+        assertThatThrownBy(() -> contributionService.createContribution(request()))
+                .hasMessageContaining("Fee has not been calculated yet");
+    }
+
+    @Test
+    void explainsRejectedInsertForUnknownTarget() {
+        when(contributionRepository.insertContribution(any(), any(), any(), any(), any(), any(), any()))
+                .thenReturn(Optional.empty());
+        when(publicIdResolver.findId(Target.class, targetPublicId)).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> contributionService.createContribution(request()))
+                .hasMessageContaining("Target not found");
+        verify(targetStudentRepository, never()).existsById(any());
+    }
+
+    @Test
+    void pagesContributionsByTargetWithKeysetCursor() {
+        LocalDateTime createdAt = LocalDateTime.of(2025, 9, 1, 8, 30);
+        ContributionView view = mock(ContributionView.class);
+        when(view.getId()).thenReturn(42L);
+        when(view.getPublicId()).thenReturn(UUID.randomUUID());
+        when(view.getStudentPublicId()).thenReturn(studentPublicId);
+        when(view.getTargetPublicId()).thenReturn(targetPublicId);
+        when(view.getCreatedAt()).thenReturn(createdAt);
+        when(publicIdResolver.findId(Target.class, targetPublicId)).thenReturn(Optional.of(1L));
+        when(contributionRepository.findPageByTargetId(eq(1L), any(), any(), any()))
+                .thenReturn(new SliceImpl<>(List.of(view), PageRequest.of(0, 1), true));
+
+        ContributionsSliceResponse page = contributionService.getContributionsByTarget(targetPublicId.toString(), null, 1);
+
+        assertThat(page.getContributions()).hasSize(1);
+        assertThat(page.getContributions().get(0).getStudentId()).isEqualTo(studentPublicId.toString());
+        assertThat(page.isHasNext()).isTrue();
+        assertThat(KeysetCursor.decode(page.getNextCursor())).isEqualTo(new KeysetCursor(createdAt, 42L));
+        verify(contributionRepository).findPageByTargetId(1L, null, null, PageRequest.of(0, 1));
+    }
+
+    @Test
+    void fullListingByStudentWalksEveryKeysetPage() {
+        LocalDateTime firstCreatedAt = LocalDateTime.of(2025, 9, 2, 8, 30);
+        ContributionView first = view(7L, firstCreatedAt);
+        ContributionView second = view(3L, firstCreatedAt.minusDays(1));
+        when(publicIdResolver.findId(Student.class, studentPublicId)).thenReturn(Optional.of(2L));
+        when(contributionRepository.findPageByStudentId(eq(2L), eq(null), eq(null), any()))
+                .thenReturn(new SliceImpl<>(List.of(first), PageRequest.of(0, 1), true));
+        when(contributionRepository.findPageByStudentId(eq(2L), eq(firstCreatedAt), eq(7L), any()))
+                .thenReturn(new SliceImpl<>(List.of(second), PageRequest.of(0, 1), false));
+
+        List<ContributionResponse> all = contributionService.getAllContributionsByStudent(studentPublicId.toString());
+
+        assertThat(all).extracting(ContributionResponse::getPublicId)
+                .containsExactly(first.getPublicId().toString(), second.getPublicId().toString());
+    }
+
+    private ContributionView view(long id, LocalDateTime createdAt) {
+        ContributionView view = mock(ContributionView.class);
+        UUID publicId = UUID.randomUUID();
+        when(view.getId()).thenReturn(id);
+        when(view.getPublicId()).thenReturn(publicId);
+        when(view.getStudentPublicId()).thenReturn(studentPublicId);
+        when(view.getTargetPublicId()).thenReturn(targetPublicId);
+        when(view.getCreatedAt()).thenReturn(createdAt);
+        return view;
+    }
+
+    private CreateContributionRequest request() {
+        return CreateContributionRequest.builder()
+                .targetId(targetPublicId.toString())
+                .studentId(studentPublicId.toString())
+                .value(BigDecimal.valueOf(100))
+                .platformCommissionRate(BigDecimal.valueOf(5))
+                .operatorFeeRate(BigDecimal.valueOf(20))
+                .build();
+    }
+}
@@ -0,0 +1,80 @@
+package pl.factorymethod.rada.contributions.export;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import pl.factorymethod.rada.contributions.repository.ContributionExportRow;
+import pl.factorymethod.rada.contributions.repository.ContributionRepository;
+import pl.factorymethod.rada.shared.identity.PublicIdResolver;
+
+class ContributionExportServiceTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private ContributionExportService service;
+    private ContributionExportRow row;
+
+    @BeforeEach
+    void setUp() {
+        service = new ContributionExportService(mock(ContributionRepository.class), mock(PublicIdResolver.class),
+                objectMapper);
+
+        row = mock(ContributionExportRow.class);
+        when(row.getPublicId()).thenReturn(UUID.fromString("00000000-0000-0000-0000-000000000001"));
+        when(row.getCreatedAt()).thenReturn(LocalDateTime.of(2025, 9, 1, 8, 30));
+        when(row.getTargetPublicId()).thenReturn(UUID.fromString("00000000-0000-0000-0000-000000000002"));
+        when(row.getStudentPublicId()).thenReturn(UUID.fromString("00000000-0000-0000-0000-000000000003"));
+        when(row.getStudentNumber()).thenReturn("7");
+        when(row.getStudentFirstName()).thenReturn("Anna, Maria");
+        when(row.getStudentLastName()).thenReturn("=Kowalska");
+        when(row.getClassName()).thenReturn("1A");
+        when(row.getValue()).thenReturn(new BigDecimal("50.00"));
+        when(row.getPlatformCommissionReserved()).thenReturn(new BigDecimal("2.50"));
+        when(row.getOperatorFeeStatus()).thenReturn("PENDING");
+        when(row.getNetToTarget()).thenReturn(new BigDecimal("47.50"));
+        when(row.getPlatformProfit()).thenReturn(new BigDecimal("2.50"));
+    }
+
+    @Test
+    void writesCsvWithQuotingAndFormulaGuard() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        int count = service.write(List.of(row).iterator(), ContributionExportFormat.CSV, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\r\n");
+        assertThat(count).isEqualTo(1);
+        assertThat(lines).hasSize(2);
+        assertThat(lines[0]).startsWith("contribution_id,created_at,");
+        assertThat(lines[1]).isEqualTo("00000000-0000-0000-0000-000000000001,2025-09-01T08:30,"
+                + "00000000-0000-0000-0000-000000000002,00000000-0000-0000-0000-000000000003,7,"
+                + "\"Anna, Maria\",'=Kowalska,1A,50.00,2.50,,PENDING,47.50,2.50");
+    }
+
+    @Test
+    void writesOneJsonObjectPerLine() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        int count = service.write(List.of(row, row).iterator(), ContributionExportFormat.NDJSON, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(count).isEqualTo(2);
+        assertThat(lines).hasSize(2);
+        JsonNode first = objectMapper.readTree(lines[0]);
+        assertThat(first.get("studentLastName").asText()).isEqualTo("=Kowalska");
+        assertThat(first.get("value").decimalValue()).isEqualByComparingTo("50.00");
+        assertThat(first.get("operatorFee").isNull()).isTrue();
+    }
+}
@@ -0,0 +1,102 @@
+package pl.factorymethod.rada.contributions.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import pl.factorymethod.rada.support.PostgresIntegrationTest;
+import pl.factorymethod.rada.targets.repository.TargetProgress;
+import pl.factorymethod.rada.targets.repository.TargetRepository;
+
+class ContributionTotalsRepositoryTest extends PostgresIntegrationTest {
+
+    @Autowired
+    private ContributionRepository contributionRepository;
+    @Autowired
+    private TargetRepository targetRepository;
+
+    private long classId;
+    private long targetId;
+    private UUID targetPublicId;
+
+    @BeforeEach
+    void setUpTarget() {
+        classId = insertClass(insertSchool());
+        targetId = insertTarget();
+        targetPublicId = publicIdOf("targets", targetId);
+    }
+
+    @Test
+    void countsContributorsOnceAndStudentsAsSettledWhenFeeIsCovered() {
+        long anna = insertStudent(classId, "1", "Anna");
+        long piotr = insertStudent(classId, "2", "Piotr");
+        assignStudent(targetId, anna, new BigDecimal("50.00"));
+        assignStudent(targetId, piotr, new BigDecimal("50.00"));
+
+        assertThat(contribute(anna, "20.00")).isPresent();
+        TargetProgress partial = progress();
+        assertThat(partial.getContributorCount()).isEqualTo(1);
+        assertThat(partial.getOutstandingCount()).isEqualTo(2);
+
+        assertThat(contribute(anna, "30.00")).isPresent();
+        TargetProgress covered = progress();
+        assertThat(covered.getContributionCount()).isEqualTo(2);
+        assertThat(covered.getContributorCount()).isEqualTo(1);
+        assertThat(covered.getCollectedGross()).isEqualByComparingTo("50.00");
+        assertThat(covered.getNetToTarget()).isEqualByComparingTo("49.00");
+        assertThat(covered.getOutstandingCount()).isEqualTo(1);
+
+        assertThat(contribute(piotr, "60.00")).isPresent();
+        TargetProgress all = progress();
+        assertThat(all.getContributorCount()).isEqualTo(2);
+        assertThat(all.getOutstandingCount()).isZero();
+    }
+
+    @Test
+    void recountsOutstandingStudentsAfterFeesAreFrozenAgain() {
+        long anna = insertStudent(classId, "1", "Anna");
+        long piotr = insertStudent(classId, "2", "Piotr");
+        assignStudent(targetId, anna, new BigDecimal("50.00"));
+        assignStudent(targetId, piotr, new BigDecimal("50.00"));
+        contribute(anna, "50.00");
+        assertThat(progress().getOutstandingCount()).isEqualTo(1);
+
+        // A third student joins and fees are frozen again at a lower amount
+        long ola = insertStudent(classId, "3", "Ola");
+        assignStudent(targetId, ola, null);
+        jdbc.update("UPDATE target_students SET fee_amount = 33.34, fee_calculated_at = now() WHERE target_id = ?",
+                targetId);
+
+        TargetProgress progress = progress();
+        assertThat(progress.getStudentCount()).isEqualTo(3);
+        assertThat(progress.getOutstandingCount()).isEqualTo(2);
+    }
+
+    @Test
+    void insertsNothingBeforeFeesAreFrozen() {
+        long anna = insertStudent(classId, "1", "Anna");
+        assignStudent(targetId, anna, null);
+
+        assertThat(contribute(anna, "10.00")).isEmpty();
+        assertThat(progress().getContributionCount()).isZero();
+        assertThat(progress().getOutstandingCount()).isEqualTo(1);
+    }
+
+    private Optional<UUID> contribute(long studentId, String value) {
+        BigDecimal amount = new BigDecimal(value);
+        BigDecimal commission = amount.multiply(new BigDecimal("0.02")).setScale(2);
+        return contributionRepository.insertContribution(UUID.randomUUID(), targetPublicId,
+                publicIdOf("students", studentId), amount, commission, BigDecimal.ZERO, LocalDateTime.now());
+    }
+
+    private TargetProgress progress() {
+        return targetRepository.findProgressByPublicId(targetPublicId).orElseThrow();
+    }
+}
@@ -0,0 +1,138 @@
+package pl.factorymethod.rada.outbox;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+
+class OutboxDispatcherTest {
+
+    private OutboxEventRepository repository;
+    private OutboxEventHandler handler;
+    private PlatformTransactionManager transactionManager;
+    private OutboxDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(OutboxEventRepository.class);
+        handler = mock(OutboxEventHandler.class);
+        transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenReturn(mock(TransactionStatus.class));
+        when(handler.supports(anyString())).thenReturn(true);
+        dispatcher = new OutboxDispatcher(repository, List.of(handler), transactionManager, 3,
+                Duration.ofSeconds(1), Duration.ofMinutes(10));
+    }
+
+    @Test
+    void marksWholeBatchProcessedInOneUpdate() throws Exception {
+        OutboxEvent first = event(1L);
+        OutboxEvent second = event(2L);
+        when(repository.claimPending(eq(10), any())).thenReturn(List.of(first, second));
+
+        int claimed = dispatcher.dispatchBatch(10);
+
+        assertThat(claimed).isEqualTo(2);
+        verify(handler).handle(first);
+        verify(handler).handle(second);
+        ArgumentCaptor<List<Long>> idsCaptor = ArgumentCaptor.forClass(List.class);
+        verify(repository).markProcessed(idsCaptor.capture(), any());
+        assertThat(idsCaptor.getValue()).containsExactly(1L, 2L);
+    }
+
+    @Test
+    void runsEachHandlerInItsOwnTransaction() throws Exception {
+        when(repository.claimPending(eq(10), any())).thenReturn(List.of(event(1L), event(2L)));
+
+        dispatcher.dispatchBatch(10);
+
+        ArgumentCaptor<TransactionDefinition> definitionCaptor = ArgumentCaptor.forClass(TransactionDefinition.class);
+        verify(transactionManager, times(2)).getTransaction(definitionCaptor.capture());
+        assertThat(definitionCaptor.getAllValues())
+                .extracting(TransactionDefinition::getPropagationBehavior)
+                .containsOnly(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        verify(transactionManager, times(2)).commit(any());
+    }
+
+    @Test
+    void isolatesFailingEventFromRestOfBatch() throws Exception {
+        OutboxEvent failing = event(1L);
+        OutboxEvent healthy = event(2L);
+        when(repository.claimPending(eq(10), any())).thenReturn(List.of(failing, healthy));
+        doThrow(new IllegalStateException("boom")).when(handler).handle(failing);
+
+        dispatcher.dispatchBatch(10);
+
+        verify(transactionManager).rollback(any());
+        verify(repository).markFailed(eq(1L), anyString(), eq(3), any(), eq(1_000L), eq(600_000L));
+        ArgumentCaptor<List<Long>> idsCaptor = ArgumentCaptor.forClass(List.class);
+        verify(repository).markProcessed(idsCaptor.capture(), any());
+        assertThat(idsCaptor.getValue()).containsExactly(2L);
+    }
+
+    @Test
+    void rollsBackHandlerTransactionOnCheckedException() throws Exception {
+        OutboxEvent failing = event(1L);
+        when(repository.claimPending(eq(10), any())).thenReturn(List.of(failing));
+        doThrow(new Exception("checked")).when(handler).handle(failing);
+
+        dispatcher.dispatchBatch(10);
+
+        verify(transactionManager).rollback(any());
+        verify(repository).markFailed(eq(1L), eq("java.lang.Exception: checked"), eq(3), any(), eq(1_000L), eq(600_000L));
+        verify(repository, never()).markProcessed(any(), any());
+    }
+
+    @Test
+    void closesEventsWithoutHandlerAsUnhandled() throws Exception {
+        OutboxEvent unhandled = event(1L);
+        unhandled.setEventType("pl.factorymethod.rada.UnknownEvent");
+        OutboxEvent handled = event(2L);
+        when(handler.supports("pl.factorymethod.rada.UnknownEvent")).thenReturn(false);
+        when(repository.claimPending(eq(10), any())).thenReturn(List.of(unhandled, handled));
+
+        dispatcher.dispatchBatch(10);
+
+        verify(handler, never()).handle(unhandled);
+        ArgumentCaptor<List<Long>> processedCaptor = ArgumentCaptor.forClass(List.class);
+        verify(repository).markProcessed(processedCaptor.capture(), any());
+        assertThat(processedCaptor.getValue()).containsExactly(2L);
+
+        ArgumentCaptor<List<Long>> unhandledCaptor = ArgumentCaptor.forClass(List.class);
+        verify(repository).markUnhandled(unhandledCaptor.capture(), any(LocalDateTime.class));
+        assertThat(unhandledCaptor.getValue()).containsExactly(1L);
+        verify(repository, never()).markFailed(any(), any(), any(Integer.class), any(), any(Long.class), any(Long.class));
+    }
+
+    @Test
+    void doesNothingWhenQueueIsEmpty() {
+        when(repository.claimPending(eq(10), any())).thenReturn(List.of());
+
+        assertThat(dispatcher.dispatchBatch(10)).isZero();
+        verify(repository, never()).markProcessed(any(), any());
+    }
+
+    private OutboxEvent event(Long id) {
+        OutboxEvent event = new OutboxEvent();
+        event.setId(id);
+        event.setEventType("pl.factorymethod.rada.SomeEvent");
+        event.setStatus(OutboxEventStatus.PENDING.name());
+        return event;
+    }
+}
@@ -0,0 +1,163 @@
+package pl.factorymethod.rada.outbox;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+class OutboxServiceTest {
+
+    record SampleEvent(String name) {
+    }
+
+    private OutboxEventRepository repository;
+    private OutboxService outboxService;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(OutboxEventRepository.class);
+        outboxService = new OutboxService(repository, new ObjectMapper());
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void writesImmediatelyOutsideTransaction() {
+        outboxService.recordAll(List.of(new SampleEvent("a"), new SampleEvent("b")));
+
+        ArgumentCaptor<List<OutboxEvent>> captor = ArgumentCaptor.forClass(List.class);
+        verify(repository).saveAll(captor.capture());
+        assertThat(captor.getValue()).hasSize(2)
+                .allSatisfy(event -> assertThat(event.getStatus()).isEqualTo(OutboxEventStatus.PENDING.name()));
+    }
+
+    @Test
+    void buffersTransactionEventsIntoSingleBatchBeforeCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        outboxService.record(new SampleEvent("a"));
+        outboxService.recordAll(List.of(new SampleEvent("b"), new SampleEvent("c")));
+        verify(repository, never()).saveAll(any());
+
+        TransactionSynchronizationUtils.triggerBeforeCommit(false);
+        TransactionSynchronizationUtils.invokeAfterCompletion(
+                TransactionSynchronizationManager.getSynchronizations(), TransactionSynchronization.STATUS_COMMITTED);
+
+        ArgumentCaptor<List<OutboxEvent>> captor = ArgumentCaptor.forClass(List.class);
+        verify(repository, times(1)).saveAll(captor.capture());
+        assertThat(captor.getValue()).extracting(OutboxEvent::getPayload)
+                .containsExactly("{\"name\":\"a\"}", "{\"name\":\"b\"}", "{\"name\":\"c\"}");
+    }
+
+    @Test
+    void keepsRequiresNewEventsOutOfTheSuspendedTransactionBuffer() {
+        StubTransactionManager transactionManager = new StubTransactionManager();
+        TransactionTemplate outer = new TransactionTemplate(transactionManager);
+        TransactionTemplate inner = new TransactionTemplate(transactionManager);
+        inner.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        outer.executeWithoutResult(outerStatus -> {
+            outboxService.record(new SampleEvent("outer-before"));
+            inner.executeWithoutResult(innerStatus -> outboxService.record(new SampleEvent("inner")));
+            outboxService.record(new SampleEvent("outer-after"));
+        });
+
+        ArgumentCaptor<List<OutboxEvent>> captor = ArgumentCaptor.forClass(List.class);
+        verify(repository, times(2)).saveAll(captor.capture());
+        assertThat(captor.getAllValues().get(0)).extracting(OutboxEvent::getPayload)
+                .containsExactly("{\"name\":\"inner\"}");
+        assertThat(captor.getAllValues().get(1)).extracting(OutboxEvent::getPayload)
+                .containsExactly("{\"name\":\"outer-before\"}", "{\"name\":\"outer-after\"}");
+    }
+
+    @Test
+    void dropsEventsOfRolledBackRequiresNewTransaction() {
+        StubTransactionManager transactionManager = new StubTransactionManager();
+        TransactionTemplate outer = new TransactionTemplate(transactionManager);
+        TransactionTemplate inner = new TransactionTemplate(transactionManager);
+        inner.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        outer.executeWithoutResult(outerStatus -> {
+            outboxService.record(new SampleEvent("outer"));
+            inner.executeWithoutResult(innerStatus -> {
+                outboxService.record(new SampleEvent("inner"));
+                innerStatus.setRollbackOnly();
+            });
+        });
+
+        ArgumentCaptor<List<OutboxEvent>> captor = ArgumentCaptor.forClass(List.class);
+        verify(repository, times(1)).saveAll(captor.capture());
+        assertThat(captor.getValue()).extracting(OutboxEvent::getPayload)
+                .containsExactly("{\"name\":\"outer\"}");
+    }
+
+    /**
+     * Transaction manager without a resource, enough to drive real suspend and resume
+     */
+    private static final class StubTransactionManager extends AbstractPlatformTransactionManager {
+
+        private boolean active;
+
+        @Override
+        protected Object doGetTransaction() {
+            return new boolean[] {active};
+        }
+
+        @Override
+        protected boolean isExistingTransaction(Object transaction) {
+            return ((boolean[]) transaction)[0];
+        }
+
+        @Override
+        protected void doBegin(Object transaction, TransactionDefinition definition) {
+            active = true;
+        }
+
+        @Override
+        protected Object doSuspend(Object transaction) {
+            active = false;
+            return Boolean.TRUE;
+        }
+
+        @Override
+        protected void doResume(Object transaction, Object suspendedResources) {
+            active = true;
+        }
+
+        @Override
+        protected void doCommit(DefaultTransactionStatus status) {
+        }
+
+        @Override
+        protected void doRollback(DefaultTransactionStatus status) {
+        }
+
+        @Override
+        protected void doCleanupAfterCompletion(Object transaction) {
+            active = false;
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package pl.factorymethod.rada.shared.events;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+class DomainEventDispatcherTest {
+
+    private ApplicationEventPublisher eventPublisher;
+    private DomainEventDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        eventPublisher = mock(ApplicationEventPublisher.class);
+        dispatcher = new DomainEventDispatcher(eventPublisher, DomainEventDispatcher.Mode.ASYNC, 4);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        dispatcher.destroy();
+    }
+
+    @Test
+    void deliversOnlyAfterCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        dispatcher.dispatch(List.of("event"));
+        verify(eventPublisher, never()).publishEvent("event");
+
+        TransactionSynchronizationUtils.triggerAfterCommit();
+        verify(eventPublisher, timeout(1000)).publishEvent("event");
+    }
+
+    @Test
+    void keepsDeliveringAfterFailingEvent() {
+        doThrow(new IllegalStateException("boom")).when(eventPublisher).publishEvent("first");
+
+        dispatcher.dispatch(List.of("first", "second"));
+
+        verify(eventPublisher, timeout(1000)).publishEvent("second");
+    }
+
+    @Test
+    void deliversInlineInSyncMode() {
+        DomainEventDispatcher syncDispatcher = new DomainEventDispatcher(eventPublisher, DomainEventDispatcher.Mode.SYNC, 4);
+        TransactionSynchronizationManager.initSynchronization();
+
+        syncDispatcher.dispatch(List.of("event"));
+
+        verify(eventPublisher).publishEvent("event");
+    }
+
+    @Test
+    void queuesDeliveryWhenSaturatedInsteadOfRunningInsideAfterCommit() throws Exception {
+        DomainEventDispatcher saturated = new DomainEventDispatcher(eventPublisher, DomainEventDispatcher.Mode.ASYNC, 1);
+        CountDownLatch blockerStarted = new CountDownLatch(1);
+        CountDownLatch releaseBlocker = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            blockerStarted.countDown();
+            releaseBlocker.await(5, TimeUnit.SECONDS);
+            return null;
+        }).when(eventPublisher).publishEvent("blocker");
+
+        // A listener joins whatever transaction is bound to its thread, so it must see none
+        AtomicReference<Thread> deliveryThread = new AtomicReference<>();
+        AtomicBoolean transactionBound = new AtomicBoolean(true);
+        CountDownLatch delivered = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            deliveryThread.set(Thread.currentThread());
+            transactionBound.set(TransactionSynchronizationManager.isSynchronizationActive()
+                    || TransactionSynchronizationManager.isActualTransactionActive());
+            delivered.countDown();
+            return null;
+        }).when(eventPublisher).publishEvent("event");
+
+        try {
+            saturated.dispatch(List.of("blocker"));
+            assertThat(blockerStarted.await(1, TimeUnit.SECONDS)).isTrue();
+
+            TransactionSynchronizationManager.initSynchronization();
+            TransactionSynchronizationManager.setActualTransactionActive(true);
+            saturated.dispatch(List.of("event"));
+            TransactionSynchronizationUtils.triggerAfterCommit();
+            TransactionSynchronizationManager.setActualTransactionActive(false);
+            TransactionSynchronizationManager.clearSynchronization();
+
+            assertThat(delivered.getCount()).isEqualTo(1);
+            releaseBlocker.countDown();
+
+            assertThat(delivered.await(1, TimeUnit.SECONDS)).isTrue();
+            assertThat(deliveryThread.get()).isNotSameAs(Thread.currentThread());
+            assertThat(transactionBound).isFalse();
+        } finally {
+            releaseBlocker.countDown();
+            saturated.destroy();
+        }
+    }
+
+    @Test
+    void propagatesListenerFailureInSyncMode() {
+        DomainEventDispatcher syncDispatcher = new DomainEventDispatcher(eventPublisher, DomainEventDispatcher.Mode.SYNC, 4);
+        doThrow(new IllegalStateException("boom")).when(eventPublisher).publishEvent("event");
+
+        assertThatThrownBy(() -> syncDispatcher.dispatch(List.of("event")))
+                .isInstanceOf(IllegalStateException.class);
+    }
+}
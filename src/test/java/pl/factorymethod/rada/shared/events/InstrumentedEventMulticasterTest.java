@@ -0,0 +1,82 @@
+package pl.factorymethod.rada.shared.events;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.PayloadApplicationEvent;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class InstrumentedEventMulticasterTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private InstrumentedEventMulticaster multicaster;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+        beanFactory.addBean("meterRegistry", meterRegistry);
+        ObjectProvider<MeterRegistry> registryProvider = beanFactory.getBeanProvider(MeterRegistry.class);
+        multicaster = new InstrumentedEventMulticaster(mock(BeanFactory.class), registryProvider);
+    }
+
+    @Test
+    void rethrowsListenerFailuresOfPlainPublishes() {
+        multicaster.addApplicationListener(failingListener());
+
+        assertThatThrownBy(() -> multicaster.multicastEvent(new PayloadApplicationEvent<>(this, "event")))
+                .isInstanceOf(IllegalStateException.class);
+        assertThat(meterRegistry.get("rada.events.listener").tag("outcome", "failure").timer().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void isolatesListenerFailuresInsideAsyncDispatch() throws InterruptedException {
+        CountDownLatch delivered = new CountDownLatch(1);
+        multicaster.addApplicationListener(failingListener());
+        multicaster.addApplicationListener((ApplicationListener<ApplicationEvent>) event -> delivered.countDown());
+        DomainEventDispatcher dispatcher = new DomainEventDispatcher(
+                event -> multicaster.multicastEvent(new PayloadApplicationEvent<>(this, event)),
+                DomainEventDispatcher.Mode.ASYNC, 4);
+        try {
+            dispatcher.dispatch(List.of("event"));
+
+            assertThat(delivered.await(5, TimeUnit.SECONDS)).isTrue();
+        } finally {
+            dispatcher.destroy();
+        }
+    }
+
+    @Test
+    void reusesOneTimerPerEventListenerAndOutcome() {
+        multicaster.addApplicationListener((ApplicationListener<ApplicationEvent>) event -> {
+        });
+
+        multicaster.multicastEvent(new PayloadApplicationEvent<>(this, "first"));
+        multicaster.multicastEvent(new PayloadApplicationEvent<>(this, "second"));
+
+        assertThat(meterRegistry.find("rada.events.listener").timers()).hasSize(1);
+        assertThat(meterRegistry.get("rada.events.listener").tag("outcome", "success").timer().count())
+                .isEqualTo(2);
+    }
+
+    private ApplicationListener<ApplicationEvent> failingListener() {
+        return event -> {
+            throw new IllegalStateException("boom");
+        };
+    }
+}
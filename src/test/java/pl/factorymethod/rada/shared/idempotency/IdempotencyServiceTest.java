@@ -0,0 +1,79 @@
+package pl.factorymethod.rada.shared.idempotency;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+class IdempotencyServiceTest {
+
+    private IdempotencyRecordRepository repository;
+    private IdempotencyService service;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(IdempotencyRecordRepository.class);
+        service = new IdempotencyService(repository, new ObjectMapper(), Duration.ofHours(24));
+    }
+
+    @Test
+    void runsActionAndStoresResponseWhenKeyIsClaimed() {
+        when(repository.claim(eq("scope"), eq("key"), anyString(), any(), any())).thenReturn(1);
+
+        String response = service.execute("scope", "key", Map.of("value", 10), String.class, () -> "created");
+
+        assertThat(response).isEqualTo("created");
+        verify(repository).storeResponse("scope", "key", "\"created\"");
+    }
+
+    @Test
+    void replaysStoredResponseWithoutRunningAction() {
+        ArgumentCaptor<String> hashCaptor = ArgumentCaptor.forClass(String.class);
+        when(repository.claim(eq("scope"), eq("key"), hashCaptor.capture(), any(), any())).thenReturn(0);
+        AtomicInteger runs = new AtomicInteger();
+
+        when(repository.findByScopeAndIdempotencyKey("scope", "key")).thenAnswer(invocation -> {
+            IdempotencyRecord record = new IdempotencyRecord();
+            record.setRequestHash(hashCaptor.getValue());
+            record.setResponseBody("\"created\"");
+            return Optional.of(record);
+        });
+
+        String response = service.execute("scope", "key", Map.of("value", 10), String.class,
+                () -> "again-" + runs.incrementAndGet());
+
+        assertThat(response).isEqualTo("created");
+        assertThat(runs).hasValue(0);
+        verify(repository, never()).storeResponse(any(), any(), any());
+    }
+
+    @Test
+    void rejectsKeyReusedWithDifferentRequest() {
+        when(repository.claim(any(), any(), any(), any(), any())).thenReturn(0);
+        IdempotencyRecord record = new IdempotencyRecord();
+        record.setRequestHash("other");
+        record.setResponseBody("\"created\"");
+        when(repository.findByScopeAndIdempotencyKey("scope", "key")).thenReturn(Optional.of(record));
+
+        assertThatThrownBy(() -> service.execute("scope", "key", Map.of("value", 10), String.class, () -> "created"))
+                .isInstanceOf(ResponseStatusException.class)
+                .hasMessageContaining("different request");
+    }
+}
@@ -0,0 +1,127 @@
+package pl.factorymethod.rada.shared.identity;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import pl.factorymethod.rada.auth.repository.UserRepository;
+import pl.factorymethod.rada.classes.repository.SchoolClassRepository;
+import pl.factorymethod.rada.classes.repository.SchoolRepository;
+import pl.factorymethod.rada.model.Student;
+import pl.factorymethod.rada.model.Target;
+import pl.factorymethod.rada.targets.repository.StudentRepository;
+import pl.factorymethod.rada.targets.repository.TargetRepository;
+
+class PublicIdResolverTest {
+
+    private TargetRepository targetRepository;
+    private StudentRepository studentRepository;
+    private SimpleMeterRegistry meterRegistry;
+    private PublicIdResolver resolver;
+
+    @BeforeEach
+    void setUp() {
+        targetRepository = mock(TargetRepository.class);
+        studentRepository = mock(StudentRepository.class);
+        meterRegistry = new SimpleMeterRegistry();
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+        beanFactory.addBean("meterRegistry", meterRegistry);
+        ObjectProvider<MeterRegistry> registryProvider = beanFactory.getBeanProvider(MeterRegistry.class);
+        resolver = new PublicIdResolver(
+                targetRepository,
+                studentRepository,
+                mock(SchoolClassRepository.class),
+                mock(SchoolRepository.class),
+                mock(UserRepository.class),
+                registryProvider,
+                1000,
+                Duration.ofMinutes(5));
+    }
+
+    @Test
+    void resolvesIdOnceAndServesRepeatsFromCache() {
+        UUID publicId = UUID.randomUUID();
+        when(targetRepository.findIdByPublicId(publicId)).thenReturn(Optional.of(7L));
+
+        assertThat(resolver.findId(Target.class, publicId)).contains(7L);
+        assertThat(resolver.findId(Target.class, publicId)).contains(7L);
+
+        verify(targetRepository, times(1)).findIdByPublicId(publicId);
+        assertThat(meterRegistry.get("cache.gets").tag("cache", PublicIdResolver.CACHE_NAME).tag("result", "hit")
+                .functionCounter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void doesNotCacheUnknownIds() {
+        UUID publicId = UUID.randomUUID();
+        when(targetRepository.findIdByPublicId(publicId)).thenReturn(Optional.empty(), Optional.of(8L));
+
+        assertThat(resolver.findId(Target.class, publicId)).isEmpty();
+        assertThat(resolver.findId(Target.class, publicId)).contains(8L);
+    }
+
+    @Test
+    void returnsReferenceWithoutLoadingEntity() {
+        UUID publicId = UUID.randomUUID();
+        Target reference = new Target();
+        when(targetRepository.findIdByPublicId(publicId)).thenReturn(Optional.of(7L));
+        when(targetRepository.getReferenceById(7L)).thenReturn(reference);
+
+        assertThat(resolver.findReference(Target.class, publicId)).containsSame(reference);
+        verify(targetRepository, times(0)).findByPublicId(publicId);
+    }
+
+    @Test
+    void cachesLookupInsideTransactionOnlyAfterCommit() {
+        UUID publicId = UUID.randomUUID();
+        when(studentRepository.findIdByPublicId(publicId)).thenReturn(Optional.of(3L));
+
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        try {
+            assertThat(resolver.findId(Student.class, publicId)).contains(3L);
+            assertThat(resolver.findId(Student.class, publicId)).contains(3L);
+            verify(studentRepository, times(2)).findIdByPublicId(publicId);
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clear();
+        }
+
+        assertThat(resolver.findId(Student.class, publicId)).contains(3L);
+        verify(studentRepository, times(2)).findIdByPublicId(publicId);
+    }
+
+    @Test
+    void doesNotCacheLookupFromRolledBackTransaction() {
+        UUID publicId = UUID.randomUUID();
+        when(studentRepository.findIdByPublicId(publicId)).thenReturn(Optional.of(3L), Optional.empty());
+
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        try {
+            assertThat(resolver.findId(Student.class, publicId)).contains(3L);
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clear();
+        }
+
+        assertThat(resolver.findId(Student.class, publicId)).isEmpty();
+    }
+}
@@ -0,0 +1,73 @@
+package pl.factorymethod.rada.shared.joincode;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import pl.factorymethod.rada.auth.repository.StudentJoinCodeRepository;
+
+class JoinCodeServiceTest {
+
+    private StudentJoinCodeRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(StudentJoinCodeRepository.class);
+    }
+
+    @Test
+    void checksWholeBatchWithSingleQuery() {
+        when(repository.findExistingJoinCodes(any())).thenReturn(List.of());
+        JoinCodeService service = new JoinCodeService(repository, 0);
+
+        List<String> codes = service.generateUniqueCodes(30);
+
+        assertThat(codes).hasSize(30);
+        assertThat(new HashSet<>(codes)).hasSize(30);
+        verify(repository, times(1)).findExistingJoinCodes(any());
+    }
+
+    @Test
+    void regeneratesOnlyCollidingCodes() {
+        List<String[]> batches = new ArrayList<>();
+        when(repository.findExistingJoinCodes(any()))
+                .thenAnswer(invocation -> {
+                    String[] candidates = invocation.getArgument(0);
+                    batches.add(candidates);
+                    return batches.size() == 1 ? List.of(candidates[0], candidates[1]) : List.of();
+                });
+        JoinCodeService service = new JoinCodeService(repository, 0);
+
+        List<String> codes = service.generateUniqueCodes(5);
+
+        assertThat(codes).hasSize(5);
+        assertThat(batches).hasSize(2);
+        assertThat(batches.get(1)).hasSize(2);
+        assertThat(codes).doesNotContain(batches.get(0)[0], batches.get(0)[1]);
+    }
+
+    @Test
+    void servesCodesFromRefilledPoolWithoutQuerying() {
+        when(repository.findExistingJoinCodes(any())).thenReturn(List.of());
+        JoinCodeService service = new JoinCodeService(repository, 20);
+        service.refillPool();
+        clearInvocations(repository);
+
+        List<String> codes = service.generateUniqueCodes(10);
+
+        assertThat(codes).hasSize(10);
+        verifyNoInteractions(repository);
+    }
+}
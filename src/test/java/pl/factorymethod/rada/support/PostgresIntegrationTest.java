@@ -0,0 +1,114 @@
+package pl.factorymethod.rada.support;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import org.junit.jupiter.api.AfterEach;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.TestPropertySource;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.postgresql.PostgreSQLContainer;
+
+/**
+ * Base for tests of native SQL that only PostgreSQL runs (data-modifying CTEs, ON CONFLICT,
+ * window functions). The schema comes from the Liquibase changelog. Skipped when Docker is
+ * not available.
+ */
+@SpringBootTest
+@Testcontainers(disabledWithoutDocker = true)
+@TestPropertySource(properties = {
+    "spring.jpa.hibernate.ddl-auto=none",
+    "spring.jpa.show-sql=false",
+    "rada.outbox.relay.enabled=false",
+    "rada.join-codes.pool-size=0"
+})
+public abstract class PostgresIntegrationTest {
+
+    // Started on first use and shared by every test class; migrations expect the rada_user role
+    private static final PostgreSQLContainer POSTGRES = new PostgreSQLContainer("postgres:17-alpine")
+            .withDatabaseName("rada")
+            .withUsername("rada_user")
+            .withPassword("secret");
+
+    @Autowired
+    protected JdbcTemplate jdbc;
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        POSTGRES.start();
+        registry.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+        registry.add("spring.datasource.username", POSTGRES::getUsername);
+        registry.add("spring.datasource.password", POSTGRES::getPassword);
+    }
+
+    @AfterEach
+    void cleanDatabase() {
+        jdbc.execute("""
+                TRUNCATE announcements, announcement_unread_counters, contributions, target_contribution_totals,
+                         target_students, targets, student_join_codes, students, classes, schools, users,
+                         outbox_events, idempotency_keys
+                CASCADE
+                """);
+    }
+
+    protected long insertSchool() {
+        return jdbc.queryForObject("INSERT INTO schools (name, address) VALUES (?, 'Address') RETURNING id",
+                Long.class, "School " + UUID.randomUUID());
+    }
+
+    protected long insertClass(long schoolId) {
+        return jdbc.queryForObject("INSERT INTO classes (name, start_year, school_id) VALUES ('1A', 2025, ?) RETURNING id",
+                Long.class, schoolId);
+    }
+
+    protected long insertStudent(long classId, String number, String lastName) {
+        return jdbc.queryForObject("""
+                INSERT INTO students (number, first_name, last_name, class_id)
+                VALUES (?, 'Jan', ?, ?)
+                RETURNING id
+                """, Long.class, number, lastName, classId);
+    }
+
+    protected long insertUser(boolean enabled, boolean expired, boolean deleted) {
+        String unique = UUID.randomUUID().toString();
+        return jdbc.queryForObject("""
+                INSERT INTO users (email, phone, password, name, enabled, expired, deleted)
+                VALUES (?, ?, 'x', 'Parent', ?, ?, ?)
+                RETURNING id
+                """, Long.class, unique + "@example.com", unique.substring(0, 20), enabled, expired, deleted);
+    }
+
+    protected long insertUser() {
+        return insertUser(true, false, false);
+    }
+
+    protected void linkParent(long studentId, long userId) {
+        jdbc.update("INSERT INTO student_join_codes (student_id, user_id, join_code) VALUES (?, ?, ?)",
+                studentId, userId, UUID.randomUUID().toString());
+    }
+
+    protected long insertTarget() {
+        return jdbc.queryForObject("""
+                INSERT INTO targets (public_id, summary, due_to, estimated_value, created_at)
+                VALUES (gen_random_uuid(), 'Trip', ?, 100, ?)
+                RETURNING id
+                """, Long.class, LocalDate.now().plusMonths(1), LocalDateTime.now());
+    }
+
+    protected void assignStudent(long targetId, long studentId, BigDecimal feeAmount) {
+        jdbc.update("""
+                INSERT INTO target_students (target_id, student_id, fee_amount, fee_calculated_at)
+                VALUES (?, ?, ?, CASE WHEN CAST(? AS numeric) IS NULL THEN NULL ELSE now() END)
+                """, targetId, studentId, feeAmount, feeAmount);
+    }
+
+    protected UUID publicIdOf(String table, long id) {
+        return jdbc.queryForObject("SELECT public_id FROM " + table + " WHERE id = ?", UUID.class, id);
+    }
+}
@@ -0,0 +1,48 @@
+package pl.factorymethod.rada.targets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.math.BigDecimal;
+
+import org.junit.jupiter.api.Test;
+
+class FeeSplitTest {
+
+    @Test
+    void splitsEvenlyWithoutRemainder() {
+        FeeSplit split = FeeSplit.evenly(BigDecimal.valueOf(100), 4);
+
+        assertThat(split.baseFee()).isEqualByComparingTo("25.00");
+        assertThat(split.upperFeeCount()).isZero();
+    }
+
+    @Test
+    void handsRemainderCentsToFirstStudents() {
+        FeeSplit split = FeeSplit.evenly(new BigDecimal("100.00"), 3);
+
+        assertThat(split.baseFee()).isEqualByComparingTo("33.33");
+        assertThat(split.upperFee()).isEqualByComparingTo("33.34");
+        assertThat(split.upperFeeCount()).isEqualTo(1);
+        assertThat(totalOf(split)).isEqualByComparingTo("100.00");
+    }
+
+    @Test
+    void totalAlwaysMatchesEstimatedValue() {
+        BigDecimal total = new BigDecimal("1234.56");
+        for (int students = 1; students <= 1500; students += 7) {
+            assertThat(totalOf(FeeSplit.evenly(total, students))).isEqualByComparingTo(total);
+        }
+    }
+
+    @Test
+    void rejectsEmptyTarget() {
+        assertThatThrownBy(() -> FeeSplit.evenly(BigDecimal.TEN, 0))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private BigDecimal totalOf(FeeSplit split) {
+        return split.baseFee().multiply(BigDecimal.valueOf(split.studentCount() - split.upperFeeCount()))
+                .add(split.upperFee().multiply(BigDecimal.valueOf(split.upperFeeCount())));
+    }
+}
@@ -3,11 +3,17 @@ package pl.factorymethod.rada.targets;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -18,14 +24,24 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.web.server.ResponseStatusException;
 
+import pl.factorymethod.rada.model.SchoolClass;
 import pl.factorymethod.rada.model.Target;
-import pl.factorymethod.rada.model.TargetStudent;
+import pl.factorymethod.rada.shared.pagination.KeysetCursor;
 import pl.factorymethod.rada.shared.events.DomainEventPublisher;
+import pl.factorymethod.rada.shared.identity.PublicIdResolver;
+import pl.factorymethod.rada.targets.dto.AddStudentsToTargetRequest;
+import pl.factorymethod.rada.targets.dto.TargetSummaryResponse;
+import pl.factorymethod.rada.targets.dto.TargetsSliceResponse;
+import pl.factorymethod.rada.targets.event.StudentsAddedToTargetEvent;
 import pl.factorymethod.rada.targets.event.TargetContributionCollectionOpenedEvent;
 import pl.factorymethod.rada.targets.repository.StudentRepository;
 import pl.factorymethod.rada.targets.repository.TargetRepository;
 import pl.factorymethod.rada.targets.repository.TargetStudentRepository;
+import pl.factorymethod.rada.targets.repository.TargetStudentSummary;
 
 class TargetServiceTest {
 
@@ -37,6 +53,8 @@ class TargetServiceTest {
     private TargetStudentRepository targetStudentRepository;
     @Mock
     private DomainEventPublisher domainEventPublisher;
+    @Mock
+    private PublicIdResolver publicIdResolver;
 
     @InjectMocks
     private TargetService targetService;
@@ -53,23 +71,19 @@ class TargetServiceTest {
         target.setPublicId(UUID.randomUUID());
         target.setEstimatedValue(BigDecimal.valueOf(100));
 
-        TargetStudent ts1 = new TargetStudent();
-        TargetStudent ts2 = new TargetStudent();
-
         when(targetRepository.findByPublicId(target.getPublicId())).thenReturn(Optional.of(target));
-        when(targetStudentRepository.findByTarget(target)).thenReturn(List.of(ts1, ts2));
+        when(targetStudentRepository.countByTarget(target)).thenReturn(2L);
+        when(targetStudentRepository.freezeFees(eq(1L), any(), any(), anyInt(), any())).thenReturn(2);
 
         targetService.openContributionCollection(target.getPublicId().toString());
 
-        ArgumentCaptor<List<TargetStudent>> captor = ArgumentCaptor.forClass(List.class);
-        verify(targetStudentRepository).saveAll(captor.capture());
-        List<TargetStudent> saved = captor.getValue();
-        assertThat(saved).hasSize(2);
-        assertThat(saved)
-            .allSatisfy(ts -> {
-                assertThat(ts.getFeeAmount()).isEqualByComparingTo(BigDecimal.valueOf(50.00));
-                assertThat(ts.getFeeCalculatedAt()).isNotNull();
-            });
+        ArgumentCaptor<BigDecimal> baseFeeCaptor = ArgumentCaptor.forClass(BigDecimal.class);
+        ArgumentCaptor<Integer> upperFeeCountCaptor = ArgumentCaptor.forClass(Integer.class);
+        verify(targetStudentRepository).freezeFees(eq(1L), baseFeeCaptor.capture(), any(),
+                upperFeeCountCaptor.capture(), any(LocalDateTime.class));
+        assertThat(baseFeeCaptor.getValue()).isEqualByComparingTo(BigDecimal.valueOf(50.00));
+        assertThat(upperFeeCountCaptor.getValue()).isZero();
+        verify(targetStudentRepository, never()).saveAll(any());
 
         ArgumentCaptor<Object> eventCaptor = ArgumentCaptor.forClass(Object.class);
         verify(domainEventPublisher, times(1)).publish(eventCaptor.capture());
@@ -83,10 +97,188 @@ class TargetServiceTest {
         target.setEstimatedValue(BigDecimal.valueOf(50));
 
         when(targetRepository.findByPublicId(target.getPublicId())).thenReturn(Optional.of(target));
-        when(targetStudentRepository.findByTarget(target)).thenReturn(List.of());
+        when(targetStudentRepository.countByTarget(target)).thenReturn(0L);
 
         assertThatThrownBy(() -> targetService.openContributionCollection(target.getPublicId().toString()))
                 .isInstanceOf(RuntimeException.class)
                 .hasMessageContaining("No students assigned");
     }
+
+    @Test
+    void rejectsOpeningWhenAssignmentsChangeConcurrently() {
+        Target target = new Target();
+        target.setId(1L);
+        target.setPublicId(UUID.randomUUID());
+        target.setEstimatedValue(BigDecimal.valueOf(100));
+
+        when(targetRepository.findByPublicId(target.getPublicId())).thenReturn(Optional.of(target));
+        when(targetStudentRepository.countByTarget(target)).thenReturn(3L);
+        when(targetStudentRepository.freezeFees(eq(1L), any(), any(), anyInt(), any())).thenReturn(4);
+
+        assertThatThrownBy(() -> targetService.openContributionCollection(target.getPublicId().toString()))
+                .isInstanceOf(ResponseStatusException.class)
+                .hasMessageContaining("changed while opening");
+        verify(domainEventPublisher, never()).publish(any());
+    }
+
+    @Test
+    void summarizesTargetsWithSingleAggregateQuery() {
+        Target withStudents = new Target();
+        withStudents.setId(1L);
+        withStudents.setPublicId(UUID.randomUUID());
+        withStudents.setEstimatedValue(BigDecimal.valueOf(100));
+
+        Target empty = new Target();
+        empty.setId(2L);
+        empty.setPublicId(UUID.randomUUID());
+        empty.setEstimatedValue(BigDecimal.valueOf(40));
+
+        LocalDateTime frozenAt = LocalDateTime.of(2024, 9, 1, 10, 0);
+        TargetStudentSummary summary = mock(TargetStudentSummary.class);
+        when(summary.getTargetId()).thenReturn(1L);
+        when(summary.getStudentCount()).thenReturn(4L);
+        when(summary.getFeePerStudent()).thenReturn(BigDecimal.valueOf(25));
+        when(summary.getFeeCalculatedAt()).thenReturn(frozenAt);
+
+        UUID classId = UUID.randomUUID();
+        when(targetRepository.findByClassPublicId(classId)).thenReturn(List.of(withStudents, empty));
+        when(targetStudentRepository.summarizeByTargetIds(List.of(1L, 2L))).thenReturn(List.of(summary));
+
+        List<TargetSummaryResponse> responses = targetService.getTargetsByClass(classId.toString());
+
+        assertThat(responses).hasSize(2);
+        assertThat(responses.get(0).getStudentCount()).isEqualTo(4);
+        assertThat(responses.get(0).getFeePerStudent()).isEqualByComparingTo(BigDecimal.valueOf(25));
+        assertThat(responses.get(0).getFeeCalculatedAt()).isEqualTo(frozenAt);
+        assertThat(responses.get(1).getStudentCount()).isZero();
+        assertThat(responses.get(1).getFeePerStudent()).isNull();
+        verify(targetStudentRepository, never()).findByTarget(any(Target.class));
+    }
+
+    @Test
+    void pagesTargetsWithKeysetCursorRoundTrip() {
+        Target first = target(1L, LocalDateTime.of(2025, 2, 1, 9, 0));
+        Target second = target(2L, LocalDateTime.of(2025, 1, 15, 12, 30));
+        Target third = target(3L, LocalDateTime.of(2025, 1, 10, 8, 0));
+        LocalDate dueFrom = LocalDate.of(2025, 1, 1);
+        LocalDate dueTo = LocalDate.of(2025, 12, 31);
+        UUID schoolId = UUID.randomUUID();
+
+        when(targetRepository.findPage(null, null, dueFrom, dueTo, schoolId, null, PageRequest.of(0, 2)))
+                .thenReturn(new SliceImpl<>(List.of(first, second), PageRequest.of(0, 2), true));
+        when(targetRepository.findPage(second.getCreatedAt(), 2L, dueFrom, dueTo, schoolId, null, PageRequest.of(0, 2)))
+                .thenReturn(new SliceImpl<>(List.of(third), PageRequest.of(0, 2), false));
+        when(targetStudentRepository.summarizeByTargetIds(any())).thenReturn(List.of());
+
+        TargetsSliceResponse firstPage = targetService.getTargets(dueFrom, dueTo, schoolId.toString(), null, null, 2);
+
+        assertThat(firstPage.isHasNext()).isTrue();
+        assertThat(firstPage.getTargets()).extracting(TargetSummaryResponse::getPublicId)
+                .containsExactly(first.getPublicId().toString(), second.getPublicId().toString());
+        assertThat(KeysetCursor.decode(firstPage.getNextCursor()))
+                .isEqualTo(new KeysetCursor(second.getCreatedAt(), 2L));
+
+        TargetsSliceResponse lastPage = targetService.getTargets(dueFrom, dueTo, schoolId.toString(), null,
+                firstPage.getNextCursor(), 2);
+
+        assertThat(lastPage.isHasNext()).isFalse();
+        assertThat(lastPage.getNextCursor()).isNull();
+        assertThat(lastPage.getTargets()).extracting(TargetSummaryResponse::getPublicId)
+                .containsExactly(third.getPublicId().toString());
+    }
+
+    @Test
+    void addsOnlyNewStudentsWithBulkInsert() {
+        Target target = new Target();
+        target.setId(1L);
+        target.setPublicId(UUID.randomUUID());
+
+        UUID alreadyAssigned = UUID.randomUUID();
+        UUID newlyAssigned = UUID.randomUUID();
+        List<UUID> requested = List.of(alreadyAssigned, newlyAssigned);
+
+        when(publicIdResolver.findId(Target.class, target.getPublicId())).thenReturn(Optional.of(1L));
+        when(studentRepository.countByPublicIdIn(requested)).thenReturn(2L);
+        when(targetStudentRepository.insertStudents(eq(1L), eq(requested), any(LocalDateTime.class)))
+                .thenReturn(List.of(newlyAssigned));
+
+        int added = targetService.addStudentsToTarget(AddStudentsToTargetRequest.builder()
+                .targetId(target.getPublicId().toString())
+                .studentIds(List.of(alreadyAssigned.toString(), newlyAssigned.toString()))
+                .build());
+
+        assertThat(added).isEqualTo(1);
+        ArgumentCaptor<Object> eventCaptor = ArgumentCaptor.forClass(Object.class);
+        verify(domainEventPublisher).publish(eventCaptor.capture());
+        StudentsAddedToTargetEvent event = (StudentsAddedToTargetEvent) eventCaptor.getValue();
+        assertThat(event.studentPublicIds()).containsExactly(newlyAssigned);
+        verify(studentRepository, never()).findByPublicIdIn(any());
+    }
+
+    @Test
+    void rejectsUnknownStudentsBeforeInserting() {
+        Target target = new Target();
+        target.setId(1L);
+        target.setPublicId(UUID.randomUUID());
+
+        when(publicIdResolver.findId(Target.class, target.getPublicId())).thenReturn(Optional.of(1L));
+        when(studentRepository.countByPublicIdIn(any())).thenReturn(0L);
+
+        assertThatThrownBy(() -> targetService.addStudentsToTarget(AddStudentsToTargetRequest.builder()
+                .targetId(target.getPublicId().toString())
+                .studentIds(List.of(UUID.randomUUID().toString()))
+                .build()))
+                .isInstanceOf(ResponseStatusException.class)
+                .hasMessageContaining("Some students not found");
+        verify(targetStudentRepository, never()).insertStudents(any(), any(), any());
+    }
+
+    @Test
+    void resolvesTargetAndClassIdsWithoutLoadingEntities() {
+        UUID targetId = UUID.randomUUID();
+        UUID classId = UUID.randomUUID();
+        UUID added = UUID.randomUUID();
+        when(publicIdResolver.findId(Target.class, targetId)).thenReturn(Optional.of(1L));
+        when(publicIdResolver.findId(SchoolClass.class, classId)).thenReturn(Optional.of(5L));
+        when(targetStudentRepository.insertClassStudents(eq(1L), eq(classId), any(LocalDateTime.class)))
+                .thenReturn(List.of(added));
+
+        assertThat(targetService.addClassToTarget(targetId.toString(), classId.toString())).isEqualTo(1);
+
+        verify(targetRepository, never()).findByPublicId(any());
+        ArgumentCaptor<Object> eventCaptor = ArgumentCaptor.forClass(Object.class);
+        verify(domainEventPublisher).publish(eventCaptor.capture());
+        assertThat(((StudentsAddedToTargetEvent) eventCaptor.getValue()).targetPublicId()).isEqualTo(targetId);
+    }
+
+    @Test
+    void rejectsUnknownClassAsNotFound() {
+        UUID targetId = UUID.randomUUID();
+        when(publicIdResolver.findId(Target.class, targetId)).thenReturn(Optional.of(1L));
+        when(publicIdResolver.findId(eq(SchoolClass.class), any())).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> targetService.addClassToTarget(targetId.toString(), UUID.randomUUID().toString()))
+                .isInstanceOf(ResponseStatusException.class)
+                .hasMessageContaining("Class not found");
+        verify(targetStudentRepository, never()).insertClassStudents(any(), any(), any());
+    }
+
+    @Test
+    void reportsMissingTargetProgressAsNotFound() {
+        UUID targetPublicId = UUID.randomUUID();
+        when(targetRepository.findProgressByPublicId(targetPublicId)).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> targetService.getTargetProgress(targetPublicId.toString()))
+                .isInstanceOf(ResponseStatusException.class)
+                .hasMessageContaining("Target not found");
+    }
+
+    private static Target target(Long id, LocalDateTime createdAt) {
+        Target target = new Target();
+        target.setId(id);
+        target.setPublicId(UUID.randomUUID());
+        target.setEstimatedValue(BigDecimal.valueOf(100));
+        target.setCreatedAt(createdAt);
+        return target;
+    }
 }
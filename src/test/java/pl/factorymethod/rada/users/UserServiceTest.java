@@ -17,10 +17,12 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
+import pl.factorymethod.rada.auth.repository.StudentJoinCodeRepository;
 import pl.factorymethod.rada.auth.repository.UserRepository;
 import pl.factorymethod.rada.model.Student;
 import pl.factorymethod.rada.model.User;
 import pl.factorymethod.rada.shared.events.DomainEventPublisher;
+import pl.factorymethod.rada.shared.joincode.JoinCodeService;
 import pl.factorymethod.rada.targets.repository.StudentRepository;
 import pl.factorymethod.rada.users.dto.CreateUserRequest;
 import pl.factorymethod.rada.users.dto.UserResponse;
@@ -37,6 +39,10 @@ class UserServiceTest {
     private DekGenerator dekGenerator;
     @Mock
     private DomainEventPublisher eventPublisher;
+    @Mock
+    private StudentJoinCodeRepository studentJoinCodeRepository;
+    @Mock
+    private JoinCodeService joinCodeService;
 
     @InjectMocks
     private UserService userService;
@@ -69,6 +75,7 @@ class UserServiceTest {
         when(studentRepository.findByPublicId(UUID.fromString(request.getStudentId())))
                 .thenReturn(Optional.of(student));
         when(dekGenerator.generateDek()).thenReturn(dek);
+        when(joinCodeService.generateUniqueCode()).thenReturn("ABCD2345");
         when(userRepository.save(any(User.class))).thenAnswer(invocation -> {
             User user = invocation.getArgument(0);
             user.setId(1L);